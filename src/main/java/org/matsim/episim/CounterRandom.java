@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2021 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim;
+
+import org.matsim.api.core.v01.Id;
+
+import java.util.SplittableRandom;
+
+/**
+ * Counter-based random numbers, whose values are a pure function of the seed, the day, an entity (person or container) and the purpose of the draw.
+ * In contrast to one shared {@link SplittableRandom}, results do not depend on the order in which entities are processed
+ * and additional draws in one model do not change the draws of all others. The generator has no state, which needs to be stored in snapshots.
+ *
+ * @see EpisimConfigGroup#setCounterBasedRandom(boolean)
+ */
+public final class CounterRandom {
+
+	/**
+	 * Golden ratio increment, as used by SplitMix64.
+	 */
+	private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final long seed;
+
+	public CounterRandom(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Finalizer of SplitMix64, a bijective mixing function of 64 bit values.
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Entity key of an id, which does not depend on the order in which ids have been created.
+	 */
+	public static long entity(Id<?> id) {
+		String s = id.toString();
+		long h = 0x84222325cbf29ce4L;
+		for (int i = 0; i < s.length(); i++)
+			h = mix(h + GAMMA + s.charAt(i));
+
+		return h;
+	}
+
+	/**
+	 * Key for all draws of an entity on a day for a purpose.
+	 */
+	public long key(int day, long entity, Purpose purpose) {
+		long z = mix(seed + GAMMA);
+		z = mix(z + GAMMA * (purpose.ordinal() + 1));
+		z = mix(z + GAMMA * day);
+		return mix(z ^ entity);
+	}
+
+	/**
+	 * Random stream of an entity on a day for a purpose. Successive calls with the same arguments return identical streams.
+	 */
+	public SplittableRandom stream(int day, long entity, Purpose purpose) {
+		return new SplittableRandom(key(day, entity, purpose));
+	}
+
+	/**
+	 * Uniformly distributed value in [0, 1), which is the {@code counter}-th draw of an entity on a day for a purpose.
+	 */
+	public double nextDouble(int day, long entity, Purpose purpose, int counter) {
+		return (mix(key(day, entity, purpose) + GAMMA * (counter + 1)) >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Purpose of random draws. Draws for different purposes are independent of each other.
+	 */
+	public enum Purpose {
+		progression, testing, vaccination
+	}
+}
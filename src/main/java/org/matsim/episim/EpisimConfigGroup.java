@@ -75,12 +75,25 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 	private static final String AGE_INFECTIVITY = "ageInfectivity";
 	private static final String DAYS_INFECTIOUS = "daysInfectious";
 	private static final String CURFEW_COMPLIANCE = "curfewCompliance";
+	private static final String STATE_UPDATE_CHUNKS = "stateUpdateChunks";
+	private static final String FAST_FORWARD = "fastForward";
+	private static final String CONTAGIOUS_CONTAINERS_ONLY = "contagiousContainersOnly";
+	private static final String INIT_CACHE = "initCache";
+	private static final String INIT_CACHE_CONTENT_HASH = "initCacheContentHash";
+	private static final String APPROXIMATE_INFECTION_PROBABILITY = "approximateInfectionProbability";
+	private static final String PERSON_STATE_STORAGE = "personStateStorage";
+	private static final String COUNTER_BASED_RANDOM = "counterBasedRandom";
 
 	private static final Logger log = LogManager.getLogger(EpisimConfigGroup.class);
 	private static final String GROUPNAME = "episim";
 
 	private final Trie<String, InfectionParams> paramsTrie = Tries.forStrings();
 
+	/**
+	 * Index assigned to the next infection params that are added.
+	 */
+	private int nextParamsIndex = 0;
+
 	/**
 	 * Number of initial infections per day.
 	 * Default is 1 infection per day for {@link VirusStrain#SARS_CoV_2}.
@@ -153,6 +166,38 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 	private Class<? extends ShutdownPolicy> policyClass = FixedPolicy.class;
 	private double maxContacts = 3.;
 	private int daysInfectious = 4;
+	/**
+	 * Number of chunks in which the daily person state updates are performed in parallel. 0 or 1 means sequential updates.
+	 */
+	private int stateUpdateChunks = 0;
+	/**
+	 * Skip the contact dynamics on days where no infection is possible.
+	 */
+	private boolean fastForward = false;
+	/**
+	 * Run contact dynamics only in containers visited by contagious persons.
+	 */
+	private boolean contagiousContainersOnly = false;
+	/**
+	 * Directory for cached initial states, null to disable.
+	 */
+	private String initCache = null;
+	/**
+	 * Identify cached initial states by the content of input files instead of their size and modification time.
+	 */
+	private boolean initCacheContentHash = false;
+	/**
+	 * Use a table based approximation of the exponential function for infection probabilities.
+	 */
+	private boolean approximateInfectionProbability = false;
+	/**
+	 * Where the mutable state of persons is stored.
+	 */
+	private PersonStateStorage personStateStorage = PersonStateStorage.heap;
+	/**
+	 * Use counter-based random numbers for person updates.
+	 */
+	private boolean counterBasedRandom = false;
 	/**
 	 * Child susceptibility used in AgeDependentInfectionModelWithSeasonality.
 	 * Taken from https://doi.org/10.1101/2020.06.03.20121145
@@ -176,6 +221,12 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 	 */
 	private NavigableMap<LocalDate, Double> curfewCompliance = new TreeMap<>();
 
+	/**
+	 * Compiled timelines of {@link #leisureOutdoorFraction} and {@link #curfewCompliance}, null until first requested.
+	 */
+	private Timeline leisureOutdoorFractionTimeline;
+	private Timeline curfewComplianceTimeline;
+
 	/**
 	 * Default constructor.
 	 */
@@ -525,6 +576,132 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 		this.daysInfectious = daysInfectious;
 	}
 
+	@StringGetter(STATE_UPDATE_CHUNKS)
+	public int getStateUpdateChunks() {
+		return stateUpdateChunks;
+	}
+
+	/**
+	 * Partition the population into a fixed number of chunks, whose progression and testing is updated in parallel at the start of each day.
+	 * Each chunk uses its own random stream, so results are reproducible for the same number of chunks, but differ from the sequential update.
+	 *
+	 * @param stateUpdateChunks number of chunks, 0 or 1 to disable parallel updates
+	 */
+	@StringSetter(STATE_UPDATE_CHUNKS)
+	public void setStateUpdateChunks(int stateUpdateChunks) {
+		this.stateUpdateChunks = stateUpdateChunks;
+	}
+
+	@StringGetter(FAST_FORWARD)
+	public boolean isFastForward() {
+		return fastForward;
+	}
+
+	/**
+	 * Replay days without any contagious or quarantined person by only moving persons between their containers.
+	 * Contact models are not invoked on these days, so random numbers are drawn differently than in a full replay.
+	 *
+	 * @param fastForward whether to enable fast-forward replay
+	 * @see org.matsim.episim.model.ContactModel#supportsFastForward()
+	 */
+	@StringSetter(FAST_FORWARD)
+	public void setFastForward(boolean fastForward) {
+		this.fastForward = fastForward;
+	}
+
+	@StringGetter(CONTAGIOUS_CONTAINERS_ONLY)
+	public boolean isContagiousContainersOnly() {
+		return contagiousContainersOnly;
+	}
+
+	/**
+	 * At the start of each day, determine the containers a contagious person will visit according to the trajectories
+	 * and invoke the contact model only for these. All other containers only track occupancy and time use.
+	 * This is not applied while contacts are needed for tracing.
+	 *
+	 * @param contagiousContainersOnly whether to skip contact dynamics in all other containers
+	 * @see org.matsim.episim.model.ContactModel#supportsFastForward()
+	 */
+	@StringSetter(CONTAGIOUS_CONTAINERS_ONLY)
+	public void setContagiousContainersOnly(boolean contagiousContainersOnly) {
+		this.contagiousContainersOnly = contagiousContainersOnly;
+	}
+
+	@StringGetter(INIT_CACHE)
+	public String getInitCache() {
+		return initCache;
+	}
+
+	/**
+	 * Store the initialized persons and containers in this directory and restore them in later runs with the same input.
+	 * Entries are identified by the path, size and modification time of all input files and relevant config values.
+	 *
+	 * @param initCache cache directory, or null to disable
+	 * @see #setInitCacheContentHash(boolean)
+	 */
+	@StringSetter(INIT_CACHE)
+	public void setInitCache(String initCache) {
+		this.initCache = initCache;
+	}
+
+	@StringGetter(INIT_CACHE_CONTENT_HASH)
+	public boolean isInitCacheContentHash() {
+		return initCacheContentHash;
+	}
+
+	/**
+	 * Hash the full content of all input files to identify cached initial states.
+	 * This is slower, but detects changed input files that kept their size and modification time.
+	 */
+	@StringSetter(INIT_CACHE_CONTENT_HASH)
+	public void setInitCacheContentHash(boolean initCacheContentHash) {
+		this.initCacheContentHash = initCacheContentHash;
+	}
+
+	@StringGetter(APPROXIMATE_INFECTION_PROBABILITY)
+	public boolean isApproximateInfectionProbability() {
+		return approximateInfectionProbability;
+	}
+
+	/**
+	 * Approximate the infection probability {@code 1 - exp(-x)} by interpolating in a table.
+	 * The absolute error is below 2e-6, which is negligible compared to the uncertainty of the calibration parameter.
+	 */
+	@StringSetter(APPROXIMATE_INFECTION_PROBABILITY)
+	public void setApproximateInfectionProbability(boolean approximateInfectionProbability) {
+		this.approximateInfectionProbability = approximateInfectionProbability;
+	}
+
+	@StringGetter(PERSON_STATE_STORAGE)
+	public PersonStateStorage getPersonStateStorage() {
+		return personStateStorage;
+	}
+
+	/**
+	 * Set where status, dates and trajectory position of all persons are stored.
+	 * Storing them outside the heap reduces heap size and garbage collection pauses for very large scenarios.
+	 */
+	@StringSetter(PERSON_STATE_STORAGE)
+	public void setPersonStateStorage(PersonStateStorage personStateStorage) {
+		this.personStateStorage = personStateStorage;
+	}
+
+	@StringGetter(COUNTER_BASED_RANDOM)
+	public boolean isCounterBasedRandom() {
+		return counterBasedRandom;
+	}
+
+	/**
+	 * Draw random numbers for progression, testing and random vaccination from {@link CounterRandom} streams of each person and day.
+	 * The streams are used whether persons are updated sequentially or in {@link #setStateUpdateChunks(int) chunks},
+	 * so results do not depend on the number of chunks, but differ from runs with the shared random generator.
+	 * On days with limited testing capacity persons are tested sequentially, which persons are tested then depends on their order.
+	 */
+	@StringSetter(COUNTER_BASED_RANDOM)
+	public void setCounterBasedRandom(boolean counterBasedRandom) {
+		this.counterBasedRandom = counterBasedRandom;
+	}
+
 	@StringGetter(AGE_SUSCEPTIBILITY)
 	String getAgeSusceptibilityString() {
 		return JOINER.join(ageSusceptibility);
@@ -594,12 +771,22 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 	public void setLeisureOutdoorFraction(Map<LocalDate, Double> fraction) {
 		leisureOutdoorFraction.clear();
 		leisureOutdoorFraction.putAll(fraction);
+		leisureOutdoorFractionTimeline = null;
 	}
 
 	public Map<LocalDate, Double> getLeisureOutdoorFraction() {
 		return leisureOutdoorFraction;
 	}
 
+	/**
+	 * Leisure outdoor fraction interpolated for each day, see {@link Timeline}.
+	 */
+	public Timeline getLeisureOutdoorFractionTimeline() {
+		if (leisureOutdoorFractionTimeline == null)
+			leisureOutdoorFractionTimeline = Timeline.interpolated(leisureOutdoorFraction, Double.NaN);
+		return leisureOutdoorFractionTimeline;
+	}
+
 	@StringSetter(LEISUREOUTDOORFRACTION)
 	void setLeisureOutdoorFraction(String capacity) {
 
@@ -619,9 +806,19 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 		return curfewCompliance;
 	}
 
+	/**
+	 * Curfew compliance compiled for daily lookup, see {@link Timeline}.
+	 */
+	public Timeline getCurfewComplianceTimeline() {
+		if (curfewComplianceTimeline == null)
+			curfewComplianceTimeline = Timeline.stepwise(curfewCompliance, 1.0);
+		return curfewComplianceTimeline;
+	}
+
 	public void setCurfewCompliance(Map<LocalDate, Double> curfewCompliance) {
 		this.curfewCompliance.clear();
 		this.curfewCompliance.putAll(curfewCompliance);
+		this.curfewComplianceTimeline = null;
 	}
 
 	@StringGetter(CURFEW_COMPLIANCE)
@@ -752,6 +949,9 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 
 		params.mappedNames.forEach(name -> paramsTrie.put(name, params));
 
+		if (params.index < 0)
+			params.index = nextParamsIndex++;
+
 		if (previous != null) {
 			log.info("scoring parameters for activityType=" + previous.getContainerName() + " were just replaced.");
 
@@ -898,6 +1098,24 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 		all
 	}
 
+	/**
+	 * Defines where the state of persons is stored.
+	 */
+	public enum PersonStateStorage {
+		/**
+		 * Buffer on the java heap.
+		 */
+		heap,
+		/**
+		 * Direct buffer outside the java heap, needs enough memory for {@code -XX:MaxDirectMemorySize}.
+		 */
+		offHeap,
+		/**
+		 * Memory-mapped temporary file in the output directory, paged in and out by the operating system.
+		 */
+		memoryMapped
+	}
+
 	/**
 	 * Defines how the snapshot seed should be processed.
 	 */
@@ -945,6 +1163,11 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 		 */
 		private boolean seasonal = false;
 
+		/**
+		 * Dense index of these params, assigned when they are added to a config group. -1 if not added yet.
+		 */
+		private int index = -1;
+
 		/**
 		 * See {@link #InfectionParams(String, String...)}. Name itself will also be used as prefix.
 		 */
@@ -986,6 +1209,14 @@ public final class EpisimConfigGroup extends ReflectiveConfigGroup {
 			return containerName;
 		}
 
+		/**
+		 * Dense index of these params within the config, or -1 if they are not part of a config.
+		 * This can be used to look up per-params values in arrays.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
 		@StringSetter(ACTIVITY_TYPE)
 		void setContainerName(String actType) {
 			this.containerName = actType;
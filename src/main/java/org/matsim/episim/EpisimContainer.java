@@ -79,6 +79,11 @@ public class EpisimContainer<T> {
 	 */
 	private double numSpaces = 1;
 
+	/**
+	 * Last iteration in which a contagious person is expected in this container.
+	 */
+	private int contagiousIteration = -1;
+
 	EpisimContainer(Id<T> containerId) {
 		this.containerId = containerId;
 	}
@@ -191,6 +196,20 @@ public class EpisimContainer<T> {
 		this.numSpaces = numSpaces;
 	}
 
+	/**
+	 * Marks that a contagious person visits this container in {@code iteration}.
+	 */
+	void markContagious(int iteration) {
+		contagiousIteration = iteration;
+	}
+
+	/**
+	 * Whether this container was marked to be visited by a contagious person in {@code iteration}.
+	 */
+	boolean isContagious(int iteration) {
+		return contagiousIteration == iteration;
+	}
+
 	void clearPersons() {
 		this.persons.clear();
 		this.personsAsList.clear();
@@ -23,6 +23,7 @@ package org.matsim.episim;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.OptionalBinder;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
@@ -62,8 +63,13 @@ public class EpisimModule extends AbstractModule {
 		bind(EpisimRunner.class).in(Singleton.class);
 		bind(ReplayHandler.class).in(Singleton.class);
 		bind(InfectionEventHandler.class).in(Singleton.class);
+		bind(HouseholdRegistry.class).in(Singleton.class);
+		bind(PersonAttributeStore.class).in(Singleton.class);
 		bind(EpisimReporting.class).in(Singleton.class);
 
+		// only present if bound from outside, when several simulations run on the same events
+		OptionalBinder.newOptionalBinder(binder(), PopulationImage.class);
+
 		// Ah, ok, here one sees how it is plugged together.  kai, apr'20
 	}
 
@@ -138,4 +144,10 @@ public class EpisimModule extends AbstractModule {
 		return new SplittableRandom(config.global().getRandomSeed());
 	}
 
+	@Provides
+	@Singleton
+	public CounterRandom counterRandom(Config config) {
+		return new CounterRandom(config.global().getRandomSeed());
+	}
+
 }
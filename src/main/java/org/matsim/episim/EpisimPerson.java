@@ -23,7 +23,8 @@ package org.matsim.episim;
 import com.google.common.annotations.Beta;
 import it.unimi.dsi.fastutil.objects.Object2DoubleLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
-import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.episim.events.EpisimPersonStatusEvent;
@@ -46,9 +47,25 @@ import static org.matsim.episim.EpisimUtils.writeChars;
 
 /**
  * Persons current state in the simulation.
+ * <p>
+ * Status, dates and trajectory position are stored in a {@link PersonStateBuffer}, which can be placed outside the heap.
+ * Maps are only allocated when they are used, because there is one instance for each agent.
+ * A person without infection history needs 80 bytes (with compressed oops) plus 16 bytes of state and its trajectory,
+ * see {@code EpisimPersonTest#memoryLayout}.
  */
 public final class EpisimPerson implements Attributable {
 
+	private static final DiseaseStatus[] DISEASE_STATUS = DiseaseStatus.values();
+	private static final QuarantineStatus[] QUARANTINE_STATUS = QuarantineStatus.values();
+	private static final VaccinationStatus[] VACCINATION_STATUS = VaccinationStatus.values();
+	private static final TestStatus[] TEST_STATUS = TestStatus.values();
+	private static final VirusStrain[] VIRUS_STRAIN = VirusStrain.values();
+
+	/**
+	 * Entry in {@link #statusChanges} for status that were never set.
+	 */
+	private static final short NEVER = Short.MIN_VALUE;
+
 	private final Id<Person> personId;
 	private final EpisimReporting reporting;
 	// This data structure is quite slow: log n costs, which should be constant...
@@ -56,40 +73,38 @@ public final class EpisimPerson implements Attributable {
 
 	/**
 	 * Whole trajectory over all days of the week.
+	 * Will be replaced by an unmodifiable view on a shared trajectory after initialization if a {@link PopulationImage} is bound,
+	 * see {@link #shareTrajectory(PopulationImage, Activity[])}.
 	 */
-	private final List<Activity> trajectory = new ArrayList<>();
+	private List<Activity> trajectory = new ArrayList<>();
 
 	/**
 	 * The position in the trajectory at the start for each day of the week.
 	 */
-	private final int[] startOfDay = new int[7];
+	private int[] startOfDay = new int[7];
 
 	/**
 	 * The position in the trajectory for the end of the day.
 	 */
-	private final int[] endOfDay = new int[7];
+	private int[] endOfDay = new int[7];
 
 	/**
 	 * The first visited {@link org.matsim.facilities.ActivityFacility} for each day.
 	 */
-	private final Id<ActivityFacility>[] firstFacilityId = new Id[7];
+	private Id<ActivityFacility>[] firstFacilityId = new Id[7];
 
 	// Fields above are initialized from the sim and not persisted
 
 	/**
-	 * Traced contacts with other persons.
+	 * Traced contacts with other persons. Null if there are none.
 	 */
-	private final Object2DoubleMap<EpisimPerson> traceableContactPersons = new Object2DoubleLinkedOpenHashMap<>(4);
+	private Object2DoubleMap<EpisimPerson> traceableContactPersons = null;
 
 	/**
-	 * Stores first time of status changes to specific type.
+	 * Stores the day of the first change to each {@link DiseaseStatus} (by ordinal), or {@link #NEVER}.
+	 * Null until the status changes the first time.
 	 */
-	private final EnumMap<DiseaseStatus, Double> statusChanges = new EnumMap<>(DiseaseStatus.class);
-
-	/**
-	 * Total spent time during activities.
-	 */
-	private final Object2DoubleMap<String> spentTime = new Object2DoubleOpenHashMap<>(4);
+	private short[] statusChanges = null;
 
 	/**
 	 * The {@link EpisimContainer} the person is currently located in.
@@ -107,50 +122,14 @@ public final class EpisimPerson implements Attributable {
 	private String infectionType = null;
 
 	/**
-	 * Current {@link DiseaseStatus}.
-	 */
-	private DiseaseStatus status = DiseaseStatus.susceptible;
-	/**
-	 * Current {@link QuarantineStatus}.
-	 */
-	private QuarantineStatus quarantineStatus = QuarantineStatus.no;
-
-	/**
-	 * Strain of the virus the person was infected with.
-	 */
-	private VirusStrain virusStrain = VirusStrain.SARS_CoV_2;
-
-	/**
-	 * Current {@link VaccinationStatus}.
-	 */
-	private VaccinationStatus vaccinationStatus = VaccinationStatus.no;
-
-	/**
-	 * Current status for re-vaccination.
+	 * Buffer holding status, dates and trajectory position of this person.
 	 */
-	private VaccinationStatus reVaccinationStatus = VaccinationStatus.no;
+	private final PersonStateBuffer state;
 
 	/**
-	 * Current {@link TestStatus}.
+	 * Index of this person in {@link #state}.
 	 */
-	private TestStatus testStatus = TestStatus.untested;
-
-	/**
-	 * Iteration when this person was vaccinated. Negative if person was never vaccinated.
-	 */
-	private int vaccinationDate = -1;
-
-	/**
-	 * Iteration when this person got into quarantine. Negative if person was never quarantined.
-	 */
-	private int quarantineDate = -1;
-
-	/**
-	 * Iteration when this person was tested. Negative if person was never tested.
-	 */
-	private int testDate = -1;
-
-	private int currentPositionInTrajectory;
+	private final int stateIndex;
 
 	/**
 	 * Age of the person in years.
@@ -167,6 +146,11 @@ public final class EpisimPerson implements Attributable {
 	 */
 	private boolean vaccinable = true;
 
+	/**
+	 * Index of the household in {@link HouseholdRegistry}, -1 if not registered.
+	 */
+	private int householdIndex = -1;
+
 	/**
 	 * Lookup age from attributes.
 	 */
@@ -188,11 +172,57 @@ public final class EpisimPerson implements Attributable {
 	}
 
 	EpisimPerson(Id<Person> personId, Attributes attrs, boolean traceable, EpisimReporting reporting) {
+		this(personId, attrs, traceable, reporting, new PersonStateBuffer(1));
+	}
+
+	/**
+	 * Creates a person, whose state is stored in a shared buffer.
+	 */
+	EpisimPerson(Id<Person> personId, Attributes attrs, boolean traceable, EpisimReporting reporting, PersonStateBuffer state) {
 		this.personId = personId;
 		this.attributes = attrs;
 		this.traceable = traceable;
 		this.age = getAge(attrs);
 		this.reporting = reporting;
+		this.state = state;
+		this.stateIndex = state.add();
+
+		setState(PersonStateBuffer.STATUS, DiseaseStatus.susceptible);
+		setState(PersonStateBuffer.QUARANTINE_STATUS, QuarantineStatus.no);
+		setState(PersonStateBuffer.VIRUS_STRAIN, VirusStrain.SARS_CoV_2);
+		setState(PersonStateBuffer.VACCINATION_STATUS, VaccinationStatus.no);
+		setState(PersonStateBuffer.RE_VACCINATION_STATUS, VaccinationStatus.no);
+		setState(PersonStateBuffer.TEST_STATUS, TestStatus.untested);
+		setDate(PersonStateBuffer.VACCINATION_DATE, -1);
+		setDate(PersonStateBuffer.QUARANTINE_DATE, -1);
+		setDate(PersonStateBuffer.TEST_DATE, -1);
+		setCurrentPositionInTrajectory(0);
+	}
+
+	private byte getState(int field) {
+		return state.getByte(stateIndex, field);
+	}
+
+	private void setState(int field, Enum<?> value) {
+		state.putByte(stateIndex, field, (byte) value.ordinal());
+	}
+
+	/**
+	 * Iteration stored in a field, negative if it was never set.
+	 */
+	private int getDate(int field) {
+		return state.getShort(stateIndex, field);
+	}
+
+	private void setDate(int field, int iteration) {
+		if (iteration != (short) iteration)
+			throw new IllegalArgumentException("Iteration " + iteration + " can not be stored.");
+
+		state.putShort(stateIndex, field, (short) iteration);
+	}
+
+	private void setCurrentPositionInTrajectory(int position) {
+		state.putInt(stateIndex, PersonStateBuffer.POSITION_IN_TRAJECTORY, position);
 	}
 
 	/**
@@ -205,17 +235,17 @@ public final class EpisimPerson implements Attributable {
 	          Map<Id<Vehicle>, InfectionEventHandler.EpisimVehicle> vehicles) throws IOException {
 
 		int n = in.readInt();
-		traceableContactPersons.clear();
+		traceableContactPersons = n > 0 ? new Object2DoubleLinkedOpenHashMap<>(n) : null;
 		for (int i = 0; i < n; i++) {
 			Id<Person> id = Id.create(readChars(in), Person.class);
 			traceableContactPersons.put(persons.get(id), in.readDouble());
 		}
 
 		n = in.readInt();
-		statusChanges.clear();
+		statusChanges = null;
 		for (int i = 0; i < n; i++) {
 			int status = in.readInt();
-			statusChanges.put(DiseaseStatus.values()[status], in.readDouble());
+			setStatusChange(DISEASE_STATUS[status], in.readDouble());
 		}
 
 		// Current container is set
@@ -240,23 +270,23 @@ public final class EpisimPerson implements Attributable {
 			infectionType = readChars(in);
 		}
 
+		// spent time is accumulated by the reporting, entries of old snapshots are skipped
 		n = in.readInt();
-		spentTime.clear();
 		for (int i = 0; i < n; i++) {
-			String act = readChars(in);
-			spentTime.put(act, in.readDouble());
+			readChars(in);
+			in.readDouble();
 		}
 
-		status = DiseaseStatus.values()[in.readInt()];
-		virusStrain = VirusStrain.values()[in.readInt()];
-		quarantineStatus = QuarantineStatus.values()[in.readInt()];
-		quarantineDate = in.readInt();
-		vaccinationStatus = VaccinationStatus.values()[in.readInt()];
-		reVaccinationStatus = VaccinationStatus.values()[in.readInt()];
-		vaccinationDate = in.readInt();
-		testStatus = TestStatus.values()[in.readInt()];
-		testDate = in.readInt();
-		currentPositionInTrajectory = in.readInt();
+		setState(PersonStateBuffer.STATUS, DISEASE_STATUS[in.readInt()]);
+		setState(PersonStateBuffer.VIRUS_STRAIN, VIRUS_STRAIN[in.readInt()]);
+		setState(PersonStateBuffer.QUARANTINE_STATUS, QUARANTINE_STATUS[in.readInt()]);
+		setDate(PersonStateBuffer.QUARANTINE_DATE, in.readInt());
+		setState(PersonStateBuffer.VACCINATION_STATUS, VACCINATION_STATUS[in.readInt()]);
+		setState(PersonStateBuffer.RE_VACCINATION_STATUS, VACCINATION_STATUS[in.readInt()]);
+		setDate(PersonStateBuffer.VACCINATION_DATE, in.readInt());
+		setState(PersonStateBuffer.TEST_STATUS, TEST_STATUS[in.readInt()]);
+		setDate(PersonStateBuffer.TEST_DATE, in.readInt());
+		setCurrentPositionInTrajectory(in.readInt());
 		traceable = in.readBoolean();
 
 		// vaccinable, which is not restored
@@ -268,16 +298,24 @@ public final class EpisimPerson implements Attributable {
 	 */
 	void write(ObjectOutput out) throws IOException {
 
-		out.writeInt(traceableContactPersons.size());
-		for (Map.Entry<EpisimPerson, Double> kv : traceableContactPersons.entrySet()) {
+		Object2DoubleMap<EpisimPerson> contacts = traceableContactPersons != null ? traceableContactPersons : Object2DoubleMaps.emptyMap();
+		out.writeInt(contacts.size());
+		for (Object2DoubleMap.Entry<EpisimPerson> kv : contacts.object2DoubleEntrySet()) {
 			writeChars(out, kv.getKey().getPersonId().toString());
-			out.writeDouble(kv.getValue());
+			out.writeDouble(kv.getDoubleValue());
 		}
 
-		out.writeInt(statusChanges.size());
-		for (Map.Entry<DiseaseStatus, Double> e : statusChanges.entrySet()) {
-			out.writeInt(e.getKey().ordinal());
-			out.writeDouble(e.getValue());
+		int n = 0;
+		for (DiseaseStatus s : DISEASE_STATUS)
+			if (hadDiseaseStatus(s)) n++;
+
+		// only the day of status changes is stored
+		out.writeInt(n);
+		for (DiseaseStatus s : DISEASE_STATUS) {
+			if (hadDiseaseStatus(s)) {
+				out.writeInt(s.ordinal());
+				out.writeDouble(statusChanges[s.ordinal()] * 86400d);
+			}
 		}
 
 		out.writeBoolean(currentContainer != null);
@@ -296,23 +334,19 @@ public final class EpisimPerson implements Attributable {
 			writeChars(out, infectionType);
 		}
 
-		out.writeInt(spentTime.size());
-
-		for (Object2DoubleMap.Entry<String> kv : spentTime.object2DoubleEntrySet()) {
-			writeChars(out, kv.getKey());
-			out.writeDouble(kv.getDoubleValue());
-		}
-
-		out.writeInt(status.ordinal());
-		out.writeInt(virusStrain.ordinal());
-		out.writeInt(quarantineStatus.ordinal());
-		out.writeInt(quarantineDate);
-		out.writeInt(vaccinationStatus.ordinal());
-		out.writeInt(reVaccinationStatus.ordinal());
-		out.writeInt(vaccinationDate);
-		out.writeInt(testStatus.ordinal());
-		out.writeInt(testDate);
-		out.writeInt(currentPositionInTrajectory);
+		// no spent time, kept for compatibility of the format
+		out.writeInt(0);
+
+		out.writeInt(getState(PersonStateBuffer.STATUS));
+		out.writeInt(getState(PersonStateBuffer.VIRUS_STRAIN));
+		out.writeInt(getState(PersonStateBuffer.QUARANTINE_STATUS));
+		out.writeInt(getDate(PersonStateBuffer.QUARANTINE_DATE));
+		out.writeInt(getState(PersonStateBuffer.VACCINATION_STATUS));
+		out.writeInt(getState(PersonStateBuffer.RE_VACCINATION_STATUS));
+		out.writeInt(getDate(PersonStateBuffer.VACCINATION_DATE));
+		out.writeInt(getState(PersonStateBuffer.TEST_STATUS));
+		out.writeInt(getDate(PersonStateBuffer.TEST_DATE));
+		out.writeInt(getCurrentPositionInTrajectory());
 		out.writeBoolean(traceable);
 		out.writeBoolean(vaccinable);
 	}
@@ -321,25 +355,49 @@ public final class EpisimPerson implements Attributable {
 		return personId;
 	}
 
+	/**
+	 * Dense index of this person, which is unique among all persons of one {@link InfectionEventHandler}.
+	 */
+	public int getStateIndex() {
+		return stateIndex;
+	}
+
 	public DiseaseStatus getDiseaseStatus() {
-		return status;
+		return DISEASE_STATUS[getState(PersonStateBuffer.STATUS)];
 	}
 
 	public void setDiseaseStatus(double now, DiseaseStatus status) {
-		this.status = status;
-		if (!statusChanges.containsKey(status))
-			statusChanges.put(status, now);
+		setState(PersonStateBuffer.STATUS, status);
+		if (!hadDiseaseStatus(status))
+			setStatusChange(status, now);
 
 		reporting.reportPersonStatus(this, new EpisimPersonStatusEvent(now, personId, status));
 	}
 
+	/**
+	 * Record the day of a status change.
+	 */
+	private void setStatusChange(DiseaseStatus status, double now) {
+
+		int day = (int) Math.floor(now / 86400d);
+		if (day <= NEVER || day > Short.MAX_VALUE)
+			throw new IllegalArgumentException("Status change at day " + day + " can not be stored.");
+
+		if (statusChanges == null) {
+			statusChanges = new short[DISEASE_STATUS.length];
+			Arrays.fill(statusChanges, NEVER);
+		}
+
+		statusChanges[status.ordinal()] = (short) day;
+	}
+
 	public QuarantineStatus getQuarantineStatus() {
-		return quarantineStatus;
+		return QUARANTINE_STATUS[getState(PersonStateBuffer.QUARANTINE_STATUS)];
 	}
 
 	public void setQuarantineStatus(QuarantineStatus quarantineStatus, int iteration) {
-		this.quarantineStatus = quarantineStatus;
-		this.quarantineDate = iteration;
+		setState(PersonStateBuffer.QUARANTINE_STATUS, quarantineStatus);
+		setDate(PersonStateBuffer.QUARANTINE_DATE, iteration);
 
 		// this function should receive now instead of iteration
 		// only for testing currently
@@ -347,43 +405,43 @@ public final class EpisimPerson implements Attributable {
 	}
 
 	public void setVirusStrain(VirusStrain virusStrain) {
-		this.virusStrain = virusStrain;
+		setState(PersonStateBuffer.VIRUS_STRAIN, virusStrain);
 	}
 
 	public VirusStrain getVirusStrain() {
-		return virusStrain;
+		return VIRUS_STRAIN[getState(PersonStateBuffer.VIRUS_STRAIN)];
 	}
 
 	public VaccinationStatus getVaccinationStatus() {
-		return vaccinationStatus;
+		return VACCINATION_STATUS[getState(PersonStateBuffer.VACCINATION_STATUS)];
 	}
 
 	public VaccinationStatus getReVaccinationStatus() {
-		return reVaccinationStatus;
+		return VACCINATION_STATUS[getState(PersonStateBuffer.RE_VACCINATION_STATUS)];
 	}
 
 	public void setVaccinationStatus(VaccinationStatus vaccinationStatus, int iteration) {
 		if (vaccinationStatus != VaccinationStatus.yes) throw new IllegalArgumentException("Vaccination can only be set to yes.");
 
-		this.vaccinationStatus = vaccinationStatus;
-		this.vaccinationDate = iteration;
+		setState(PersonStateBuffer.VACCINATION_STATUS, vaccinationStatus);
+		setDate(PersonStateBuffer.VACCINATION_DATE, iteration);
 	}
 
 	public void setReVaccinationStatus(VaccinationStatus vaccinationStatus, int iteration) {
-		if (this.vaccinationStatus != VaccinationStatus.yes) throw new IllegalArgumentException("First vaccination must already be present.");
+		if (getVaccinationStatus() != VaccinationStatus.yes) throw new IllegalArgumentException("First vaccination must already be present.");
 		if (vaccinationStatus != VaccinationStatus.yes) throw new IllegalArgumentException("Re-vaccination can only be set to yes.");
 
-		this.reVaccinationStatus = vaccinationStatus;
-		this.vaccinationDate = iteration;
+		setState(PersonStateBuffer.RE_VACCINATION_STATUS, vaccinationStatus);
+		setDate(PersonStateBuffer.VACCINATION_DATE, iteration);
 	}
 
 	public TestStatus getTestStatus() {
-		return testStatus;
+		return TEST_STATUS[getState(PersonStateBuffer.TEST_STATUS)];
 	}
 
 	public void setTestStatus(TestStatus testStatus, int iteration) {
-		this.testStatus = testStatus;
-		this.testDate = iteration;
+		setState(PersonStateBuffer.TEST_STATUS, testStatus);
+		setDate(PersonStateBuffer.TEST_DATE, iteration);
 	}
 
 	/**
@@ -395,18 +453,16 @@ public final class EpisimPerson implements Attributable {
 	 * @throws IllegalStateException when the requested status was never set
 	 */
 	public int daysSince(DiseaseStatus status, int currentDay) {
-		if (!statusChanges.containsKey(status)) throw new IllegalStateException("Person was never " + status);
-
-		double day = Math.floor(statusChanges.get(status) / 86400d);
+		if (!hadDiseaseStatus(status)) throw new IllegalStateException("Person was never " + status);
 
-		return currentDay - (int) day;
+		return currentDay - statusChanges[status.ordinal()];
 	}
 
 	/**
 	 * Return whether a person had (or currently has) a certain disease status.
 	 */
 	public boolean hadDiseaseStatus(DiseaseStatus status) {
-		return statusChanges.containsKey(status);
+		return statusChanges != null && statusChanges[status.ordinal()] != NEVER;
 	}
 
 	/**
@@ -420,6 +476,7 @@ public final class EpisimPerson implements Attributable {
 
 		// yyyy since this API is so unstable, I would prefer to have the class non-public.  kai, apr'20
 		// -> api now marked as unstable and containing an api note, because it is used by the models it has to be public. chr, apr'20
+		int quarantineDate = getDate(PersonStateBuffer.QUARANTINE_DATE);
 		if (quarantineDate < 0) throw new IllegalStateException("Person was never quarantined");
 
 		return currentDay - quarantineDate;
@@ -432,6 +489,7 @@ public final class EpisimPerson implements Attributable {
 	 */
 	public int daysSince(VaccinationStatus status, int currentDay) {
 		if (status != VaccinationStatus.yes) throw new IllegalArgumentException("Only supports querying when person was vaccinated");
+		int vaccinationDate = getDate(PersonStateBuffer.VACCINATION_DATE);
 		if (vaccinationDate < 0) throw new IllegalStateException("Person was never vaccinated");
 
 		return currentDay - vaccinationDate;
@@ -443,6 +501,7 @@ public final class EpisimPerson implements Attributable {
 	 * @param currentDay current day (iteration)
 	 */
 	public int daysSinceTest(int currentDay) {
+		int testDate = getDate(PersonStateBuffer.TEST_DATE);
 		if (testDate < 0)
 			return Integer.MAX_VALUE;
 
@@ -452,6 +511,9 @@ public final class EpisimPerson implements Attributable {
 	public void addTraceableContactPerson(EpisimPerson personWrapper, double now) {
 		// check if both persons have tracing capability
 		if (isTraceable() && personWrapper.isTraceable()) {
+			if (traceableContactPersons == null)
+				traceableContactPersons = new Object2DoubleLinkedOpenHashMap<>(4);
+
 			// Always use the latest tracking date
 			traceableContactPersons.put(personWrapper, now);
 			reporting.reportTracing(now, this, personWrapper);
@@ -462,6 +524,9 @@ public final class EpisimPerson implements Attributable {
 	 * Get all traced contacts that happened after certain time.
 	 */
 	public List<EpisimPerson> getTraceableContactPersons(double after) {
+		if (traceableContactPersons == null)
+			return new ArrayList<>();
+
 		return traceableContactPersons.object2DoubleEntrySet()
 				.stream().filter(p -> p.getDoubleValue() >= after)
 				.map(Map.Entry::getKey)
@@ -477,11 +542,13 @@ public final class EpisimPerson implements Attributable {
 	 */
 	public void clearTraceableContractPersons(double before) {
 
-		int oldSize = traceableContactPersons.size();
-
-		if (oldSize == 0) return;
+		if (traceableContactPersons == null) return;
 
 		traceableContactPersons.keySet().removeIf(k -> traceableContactPersons.getDouble(k) < before);
+
+		// release memory of persons without recent contacts
+		if (traceableContactPersons.isEmpty())
+			traceableContactPersons = null;
 	}
 
 	/**
@@ -499,6 +566,26 @@ public final class EpisimPerson implements Attributable {
 		return vaccinable;
 	}
 
+	/**
+	 * Index of this persons household, or -1 if there is none.
+	 *
+	 * @see HouseholdRegistry
+	 */
+	public int getHouseholdIndex() {
+		return householdIndex;
+	}
+
+	void setHouseholdIndex(int householdIndex) {
+		this.householdIndex = householdIndex;
+	}
+
+	/**
+	 * Whether both persons are registered and belong to the same household.
+	 */
+	public boolean isSameHousehold(EpisimPerson other) {
+		return householdIndex != -1 && householdIndex == other.householdIndex;
+	}
+
 	void setVaccinable(boolean vaccinable) {
 		this.vaccinable = vaccinable;
 	}
@@ -511,16 +598,130 @@ public final class EpisimPerson implements Attributable {
 		return trajectory;
 	}
 
+	/**
+	 * Replaces trajectory and day structure with the shared copy from {@code image}, if it is identical to this person's.
+	 * Days with identical activities are stored only once, see {@link #compactDays(short[], int[], int[])}.
+	 * The trajectory and day structure can not be modified afterwards.
+	 *
+	 * @param table activities of this simulation, indexed by their type index in the image
+	 */
+	void shareTrajectory(PopulationImage image, Activity[] table) {
+
+		short[] types = new short[trajectory.size()];
+		for (int i = 0; i < types.length; i++)
+			types[i] = (short) image.getTypeIndex(trajectory.get(i).actType);
+
+		int[] start = new int[7];
+		int[] end = new int[7];
+		types = compactDays(types, start, end);
+
+		PopulationImage.Entry entry = image.share(personId, new PopulationImage.Entry(types, start, end, firstFacilityId));
+
+		trajectory = new SharedTrajectory(entry.types, table);
+		startOfDay = entry.startOfDay;
+		endOfDay = entry.endOfDay;
+		firstFacilityId = entry.firstFacilityId;
+	}
+
+	/**
+	 * Writes trajectory and day structure, which are not part of {@link #write(ObjectOutput)}.
+	 *
+	 * @param types index of each activity type
+	 */
+	void writeTrajectory(ObjectOutput out, Object2IntMap<String> types) throws IOException {
+
+		out.writeInt(trajectory.size());
+		for (Activity act : trajectory)
+			out.writeInt(types.getInt(act.actType));
+
+		for (int i = 0; i < 7; i++) {
+			out.writeInt(startOfDay[i]);
+			out.writeInt(endOfDay[i]);
+			writeChars(out, firstFacilityId[i] != null ? firstFacilityId[i].toString() : "");
+		}
+
+		out.writeInt(getCurrentPositionInTrajectory());
+	}
+
+	/**
+	 * Reads trajectory written by {@link #writeTrajectory(ObjectOutput, Object2IntMap)}.
+	 *
+	 * @param types activities in order of their index
+	 */
+	void readTrajectory(ObjectInput in, List<Activity> types) throws IOException {
+
+		int n = in.readInt();
+		trajectory = new ArrayList<>(n);
+		for (int i = 0; i < n; i++)
+			trajectory.add(types.get(in.readInt()));
+
+		for (int i = 0; i < 7; i++) {
+			startOfDay[i] = in.readInt();
+			endOfDay[i] = in.readInt();
+			String id = readChars(in);
+			firstFacilityId[i] = id.isEmpty() ? null : Id.create(id, ActivityFacility.class);
+		}
+
+		setCurrentPositionInTrajectory(in.readInt());
+	}
+
+	/**
+	 * Removes days whose activities already appeared on a previous day of the week.
+	 * The activity before the start of a day is part of the compared segment, because it is used as previous activity of a trip.
+	 *
+	 * @param types activity types of the whole trajectory
+	 * @param start output for start of day positions in the compacted trajectory
+	 * @param end   output for end of day positions in the compacted trajectory
+	 * @return compacted trajectory
+	 */
+	private short[] compactDays(short[] types, int[] start, int[] end) {
+
+		// one additional leading activity for each day
+		short[] result = new short[types.length + 7];
+		int size = 0;
+
+		outer:
+		for (int d = 0; d < 7; d++) {
+
+			int lead = startOfDay[d] > 0 ? 1 : 0;
+			int from = startOfDay[d] - lead;
+			int to = endOfDay[d] + 1;
+
+			for (int o = 0; o < d; o++) {
+				int oLead = startOfDay[o] > 0 ? 1 : 0;
+				if (lead == oLead && Arrays.equals(types, from, to, types, startOfDay[o] - oLead, endOfDay[o] + 1)) {
+					start[d] = start[o];
+					end[d] = end[o];
+					continue outer;
+				}
+			}
+
+			System.arraycopy(types, from, result, size, to - from);
+			start[d] = size + lead;
+			end[d] = size + to - from - 1;
+			size += to - from;
+		}
+
+		// nothing gained, keep the original layout
+		if (size >= types.length) {
+			System.arraycopy(startOfDay, 0, start, 0, 7);
+			System.arraycopy(endOfDay, 0, end, 0, 7);
+			return types;
+		}
+
+		return Arrays.copyOf(result, size);
+	}
+
 	public int getCurrentPositionInTrajectory() {
-		return this.currentPositionInTrajectory;
+		return state.getInt(stateIndex, PersonStateBuffer.POSITION_IN_TRAJECTORY);
 	}
 
 	void incrementCurrentPositionInTrajectory() {
-		this.currentPositionInTrajectory++;
+		setCurrentPositionInTrajectory(getCurrentPositionInTrajectory() + 1);
 	}
 
 	void resetCurrentPositionInTrajectory(DayOfWeek day) {
-		currentPositionInTrajectory = startOfDay[day.getValue() - 1];
+		setCurrentPositionInTrajectory(startOfDay[day.getValue() - 1]);
 	}
 
 	void setStartOfDay(DayOfWeek day, int position) {
@@ -653,20 +854,6 @@ public final class EpisimPerson implements Attributable {
 		return infectionType;
 	}
 
-	/**
-	 * Add amount of time to spent time for an activity.
-	 */
-	public void addSpentTime(String actType, double timeSpent) {
-		spentTime.mergeDouble(actType, timeSpent, Double::sum);
-	}
-
-	/**
-	 * Spent time of this person by activity.
-	 */
-	public Object2DoubleMap<String> getSpentTime() {
-		return spentTime;
-	}
-
 	@Override
 	public String toString() {
 		return "EpisimPerson{" +
@@ -697,6 +884,30 @@ public final class EpisimPerson implements Attributable {
 	 */
 	public enum VaccinationStatus {yes, no}
 
+	/**
+	 * Unmodifiable trajectory that resolves shared activity type indices with the activities of one simulation.
+	 */
+	private static final class SharedTrajectory extends AbstractList<Activity> implements RandomAccess {
+
+		private final short[] types;
+		private final Activity[] table;
+
+		private SharedTrajectory(short[] types, Activity[] table) {
+			this.types = types;
+			this.table = table;
+		}
+
+		@Override
+		public Activity get(int index) {
+			return table[types[index]];
+		}
+
+		@Override
+		public int size() {
+			return types.length;
+		}
+	}
+
 	/**
 	 * Activity performed by a person. Holds the type and its infection params.
 	 */
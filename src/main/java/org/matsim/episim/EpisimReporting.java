@@ -20,11 +20,8 @@
  */
 package org.matsim.episim;
 
-import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.typesafe.config.ConfigRenderOptions;
-import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
-import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.apache.logging.log4j.LogManager;
@@ -93,6 +90,7 @@ public final class EpisimReporting implements BasicEventHandler, Closeable, Exte
 	private final double sampleSize;
 	private final Config config;
 	private final EpisimConfigGroup episimConfig;
+	private final PersonAttributeStore.StringColumn districtColumn;
 	/**
 	 * Current day / iteration.
 	 */
@@ -108,9 +106,24 @@ public final class EpisimReporting implements BasicEventHandler, Closeable, Exte
 
 	private String memorizedDate = null;
 
+	/**
+	 * Index of activity types in {@link #timeUseTotals}.
+	 */
+	private final Object2IntMap<String> timeUseIndex = new Object2IntOpenHashMap<>();
+
+	/**
+	 * Total time spent by all persons for each activity type during the current day.
+	 */
+	private double[] timeUseTotals = new double[16];
+
+	/**
+	 * Buffer for person status changes of the current thread. If not set, changes are published immediately.
+	 */
+	private final ThreadLocal<StatusBuffer> statusBuffer = new ThreadLocal<>();
+
 
 	@Inject
-	EpisimReporting(Config config, EpisimWriter writer, EventsManager manager) {
+	EpisimReporting(Config config, EpisimWriter writer, EventsManager manager, PersonAttributeStore attributeStore) {
 		outDir = config.controler().getOutputDirectory();
 
 		// file names depend on the run name
@@ -136,6 +149,8 @@ public final class EpisimReporting implements BasicEventHandler, Closeable, Exte
 		this.config = config;
 		this.writer = writer;
 		this.manager = manager;
+		this.districtColumn = attributeStore.declareString("district");
+		this.timeUseIndex.defaultReturnValue(-1);
 
 		infectionReport = EpisimWriter.prepare(base + "infections.txt", InfectionsWriterFields.class);
 		infectionEvents = EpisimWriter.prepare(base + "infectionEvents.txt", InfectionEventsWriterFields.class);
@@ -224,7 +239,7 @@ public final class EpisimReporting implements BasicEventHandler, Closeable, Exte
 		reports.put("total", report);
 
 		for (EpisimPerson person : persons) {
-			String districtName = (String) person.getAttributes().getAttribute("district");
+			String districtName = districtColumn.get(person);
 
 			// Also aggregate by district
 			InfectionReport district = reports.computeIfAbsent(districtName == null ? "unknown"
@@ -484,51 +499,106 @@ public final class EpisimReporting implements BasicEventHandler, Closeable, Exte
 
 		if (iteration == 0) return;
 
-		Object2DoubleMap<String> avg = new Object2DoubleOpenHashMap<>();
-
-		int i = 1;
-		for (EpisimPerson person : persons) {
+		Object[] array = new String[activities.size()];
+		Arrays.fill(array, "");
 
-			// Average += (NewValue - Average) / NewSampleCount;
+		int n = persons.size();
+		if (n > 0) {
+			int i = 0;
 			for (String act : activities) {
-				// Compute incremental avg.
-				avg.mergeDouble(act, (person.getSpentTime().getDouble(act) - avg.getDouble(act)) / i, Double::sum);
+				int idx = timeUseIndex.getInt(act);
+				double total = idx >= 0 ? timeUseTotals[idx] : 0;
 
-				// Compute total instead
-//				avg.mergeDouble(act, person.getSpentTime().getDouble(act), Double::sum);
+				// report average minutes per person
+				array[i++] = String.valueOf(total / n / 60d);
 			}
-
-			person.getSpentTime().clear();
-			i++;
 		}
 
-		List<String> order = Lists.newArrayList(activities);
-		Object[] array = new String[order.size()];
-		Arrays.fill(array, "");
-
-		// report minutes
-		avg.forEach((k, v) -> array[order.indexOf(k)] = String.valueOf(v / 60d));
+		clearTimeUse();
 
 		writer.append(timeUse, EpisimWriter.JOINER.join(iteration, date, array));
 		writer.append(timeUse, "\n");
 	}
 
+	/**
+	 * Add time spent by one person during an activity to the totals of the current day.
+	 */
+	void addSpentTime(String actType, double timeSpent) {
+		int idx = timeUseIndex.getInt(actType);
+		if (idx < 0) {
+			idx = timeUseIndex.size();
+			timeUseIndex.put(actType, idx);
+			if (idx == timeUseTotals.length)
+				timeUseTotals = Arrays.copyOf(timeUseTotals, idx * 2);
+		}
+
+		timeUseTotals[idx] += timeSpent;
+	}
+
+	/**
+	 * Total time spent by all persons for an activity during the current day.
+	 */
+	double getSpentTime(String actType) {
+		int idx = timeUseIndex.getInt(actType);
+		return idx >= 0 ? timeUseTotals[idx] : 0;
+	}
+
+	/**
+	 * Reset the spent time of all activities.
+	 */
+	void clearTimeUse() {
+		Arrays.fill(timeUseTotals, 0);
+	}
+
 	/**
 	 * Report that a person status has changed and publish corresponding event.
 	 */
 	public void reportPersonStatus(EpisimPerson person, EpisimPersonStatusEvent event) {
 
+		StatusBuffer buffer = statusBuffer.get();
+		if (buffer != null) {
+			buffer.persons.add(person);
+			buffer.events.add(event);
+			return;
+		}
+
 		EpisimPerson.DiseaseStatus newStatus = event.getDiseaseStatus();
 
 		if (newStatus == EpisimPerson.DiseaseStatus.seriouslySick || newStatus == EpisimPerson.DiseaseStatus.contagious ||
 				newStatus == EpisimPerson.DiseaseStatus.showingSymptoms || newStatus == EpisimPerson.DiseaseStatus.critical) {
-			String districtName = (String) person.getAttributes().getAttribute("district");
+			String districtName = districtColumn.get(person);
 			cumulativeCases.get(newStatus).mergeInt(districtName == null ? "unknown" : districtName, 1, Integer::sum);
 		}
 
 		manager.processEvent(event);
 	}
 
+	/**
+	 * Buffers all person status changes reported by the current thread, instead of publishing them.
+	 * This is used for parallel state updates, where the buffers are flushed afterwards in a deterministic order.
+	 *
+	 * @param buffer buffer to use, or null to publish changes of the current thread directly again
+	 * @see #flushPersonStatus(StatusBuffer)
+	 */
+	void bufferPersonStatus(StatusBuffer buffer) {
+		if (buffer == null)
+			statusBuffer.remove();
+		else
+			statusBuffer.set(buffer);
+	}
+
+	/**
+	 * Publish all status changes in a buffer in the order they occurred.
+	 */
+	void flushPersonStatus(StatusBuffer buffer) {
+		for (int i = 0; i < buffer.events.size(); i++) {
+			reportPersonStatus(buffer.persons.get(i), buffer.events.get(i));
+		}
+
+		buffer.persons.clear();
+		buffer.events.clear();
+	}
+
 	/**
 	 * Write container statistic to file.
 	 */
@@ -656,6 +726,13 @@ public final class EpisimReporting implements BasicEventHandler, Closeable, Exte
 		for (VirusStrain value : VirusStrain.values()) {
 			out.writeInt(strains.getInt(value));
 		}
+
+		// snapshots are written before the time use of the day is reported
+		out.writeInt(timeUseIndex.size());
+		for (Object2IntMap.Entry<String> kv : timeUseIndex.object2IntEntrySet()) {
+			writeChars(out, kv.getKey());
+			out.writeDouble(timeUseTotals[kv.getIntValue()]);
+		}
 	}
 
 	@Override
@@ -674,6 +751,31 @@ public final class EpisimReporting implements BasicEventHandler, Closeable, Exte
 		for (VirusStrain value : VirusStrain.values()) {
 			strains.put(value, in.readInt());
 		}
+
+		clearTimeUse();
+
+		int n;
+		try {
+			n = in.readInt();
+		} catch (EOFException e) {
+			// snapshot written before time use was persisted
+			return;
+		}
+
+		for (int i = 0; i < n; i++) {
+			String act = readChars(in);
+			addSpentTime(act, in.readDouble());
+		}
+	}
+
+	/**
+	 * Person status changes that have not been published yet.
+	 */
+	static final class StatusBuffer {
+
+		private final List<EpisimPerson> persons = new ArrayList<>();
+		private final List<EpisimPersonStatusEvent> events = new ArrayList<>();
+
 	}
 
 	enum InfectionsWriterFields {
@@ -33,6 +33,7 @@ import org.matsim.core.controler.ControlerUtils;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.episim.model.ProgressionModel;
 
+import javax.annotation.Nullable;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -41,6 +42,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.DayOfWeek;
+import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Main entry point and runner of one epidemic simulation.
@@ -76,12 +79,88 @@ public final class EpisimRunner {
 	 * @param maxIterations maximum number of iterations (inclusive)
 	 */
 	public void run(int maxIterations) {
+		simulate(maxIterations, -1, null);
+	}
+
+	/**
+	 * Main loop that can be stopped early, i.e. when the results of a run are already known to be irrelevant.
+	 *
+	 * @param maxIterations maximum number of iterations (inclusive)
+	 * @param stop          called with the total report after each iteration, simulation stops when true is returned
+	 */
+	public void run(int maxIterations, Predicate<EpisimReporting.InfectionReport> stop) {
+		simulate(maxIterations, -1, stop);
+	}
+
+	/**
+	 * Simulate all iterations before {@code iteration} and write a snapshot of the state at the start of it.
+	 * Runs that are identical until then can continue from this snapshot, see {@link EpisimConfigGroup#setStartFromSnapshot(String)}.
+	 *
+	 * @param iteration iteration at which the simulation is stopped
+	 * @return path to the written snapshot
+	 */
+	public Path runUntil(int iteration) {
+		return simulate(iteration - 1, iteration, null);
+	}
+
+	/**
+	 * Main loop, optionally writing a snapshot at the end.
+	 *
+	 * @param snapshotAt iteration the final snapshot is written for, -1 for none
+	 * @param stop       optional condition to stop the simulation early
+	 * @return path of final snapshot or null
+	 */
+	private Path simulate(int maxIterations, int snapshotAt, @Nullable Predicate<EpisimReporting.InfectionReport> stop) {
 
 		// Construct these dependencies as late as possible, so all other configs etc have been fully configured
 		final ReplayHandler replay = replayProvider.get();
 		final InfectionEventHandler handler = handlerProvider.get();
 		final EpisimReporting reporting = reportingProvider.get();
 
+		try {
+			int iteration = start(replay, handler, reporting);
+			if (iteration < 0)
+				return null;
+
+			log.info("Starting from iteration {}...", iteration);
+
+			for (; iteration <= maxIterations; iteration++) {
+
+				writeScheduledSnapshot(iteration);
+
+				if (iteration % 10 == 0)
+					Gbl.printMemoryUsage();
+
+				if (!doStep(replay, handler, reporting, iteration))
+					break;
+
+				if (stop != null && stop.test(handler.getReport())) {
+					log.info("Stopping simulation early at iteration {}", iteration);
+					break;
+				}
+
+			}
+
+			reporting.close();
+
+			// written after closing the reporting, so that all output is contained
+			if (snapshotAt > 0)
+				return writeSnapshot(Path.of(config.controler().getOutputDirectory()), snapshotAt);
+
+			return null;
+		} finally {
+			// the final snapshot still needs the person state
+			handler.close();
+		}
+	}
+
+	/**
+	 * Initialize the handler and restore the snapshot, if one is configured.
+	 *
+	 * @return first iteration to simulate, or -1 if the simulation can not be started
+	 */
+	private int start(ReplayHandler replay, InfectionEventHandler handler, EpisimReporting reporting) {
+
 		// reporting will write events if necessary
 		EpisimConfigGroup episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
 
@@ -102,27 +181,37 @@ public final class EpisimRunner {
 				reporting.append(episimConfig.getStartDate().plusDays(iteration - 1).toString());
 			} catch (IOException e) {
 				log.error("Snapshot output could not be created", e);
-				return;
+				return -1;
 			}
 		}
 
+		return iteration;
+	}
 
-		log.info("Starting from iteration {}...", iteration);
-
-		for (; iteration <= maxIterations; iteration++) {
-
-			if (episimConfig.getSnapshotInterval() > 0 && iteration % episimConfig.getSnapshotInterval() == 0)
-				writeSnapshot(output, iteration);
+	/**
+	 * Write a snapshot if one is scheduled for this iteration.
+	 */
+	private void writeScheduledSnapshot(int iteration) {
+		EpisimConfigGroup episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
+		if (episimConfig.getSnapshotInterval() > 0 && iteration % episimConfig.getSnapshotInterval() == 0)
+			writeSnapshot(Path.of(config.controler().getOutputDirectory()), iteration);
+	}
 
-			if (iteration % 10 == 0)
-				Gbl.printMemoryUsage();
+	/**
+	 * Prepare the handler for an iteration, before events are replayed.
+	 *
+	 * @return false, when the simulation should end
+	 */
+	private boolean beginStep(final InfectionEventHandler handler, int iteration) {
 
-			if (!doStep(replay, handler, reporting, iteration))
-				break;
+		manager.resetHandlers(iteration);
+		handler.reset(iteration);
 
-		}
+		return !handler.isFinished();
+	}
 
-		reporting.close();
+	private DayOfWeek getDayOfWeek(int iteration) {
+		return EpisimUtils.getDayOfWeek(ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class), iteration);
 	}
 
 	/**
@@ -132,16 +221,11 @@ public final class EpisimRunner {
 	 */
 	boolean doStep(final ReplayHandler replay, final InfectionEventHandler handler, final EpisimReporting reporting, int iteration) {
 
-		manager.resetHandlers(iteration);
-		handler.reset(iteration);
-
-		if (handler.isFinished())
+		if (!beginStep(handler, iteration))
 			return false;
 
-		DayOfWeek day = EpisimUtils.getDayOfWeek(ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class), iteration);
-
 		// Process all events
-		replay.replayEvents(handler, day);
+		replay.replayEvents(handler, getDayOfWeek(iteration));
 
 		reporting.flushEvents();
 
@@ -154,8 +238,9 @@ public final class EpisimRunner {
 	 *
 	 * @param output    target output directory
 	 * @param iteration current iteration
+	 * @return path of the snapshot, or null if it could not be written
 	 */
-	private void writeSnapshot(Path output, int iteration) {
+	private Path writeSnapshot(Path output, int iteration) {
 
 		InfectionEventHandler handler = handlerProvider.get();
 		EpisimReporting reporting = reportingProvider.get();
@@ -194,10 +279,12 @@ public final class EpisimRunner {
 
 		} catch (IOException | ArchiveException e) {
 			log.error("Could not write snapshot", e);
+			return null;
 		}
 
 		log.info("Snapshot for day {} written successfully", iteration);
 
+		return path;
 	}
 
 	/**
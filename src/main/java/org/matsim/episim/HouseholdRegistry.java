@@ -0,0 +1,120 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2021 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registry of all households, identified by the {@code homeId} attribute of persons.
+ * Each household is assigned an index, which is also stored in {@link EpisimPerson#getHouseholdIndex()}.
+ * Persons without home id form a household of their own.
+ */
+public final class HouseholdRegistry {
+
+	private static final EpisimPerson[] EMPTY = new EpisimPerson[0];
+
+	/**
+	 * Index of each home id.
+	 */
+	private final Object2IntMap<String> index = new Object2IntOpenHashMap<>();
+
+	/**
+	 * Home id for each household, null for persons without home.
+	 */
+	private final List<String> homeIds = new ArrayList<>();
+
+	/**
+	 * Members of each household.
+	 */
+	private final List<EpisimPerson[]> members = new ArrayList<>();
+
+	public HouseholdRegistry() {
+		index.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Add a person to its household and set its household index.
+	 *
+	 * @return index of the household
+	 */
+	public int add(EpisimPerson person) {
+
+		if (person.getHouseholdIndex() != -1)
+			throw new IllegalStateException("Person " + person.getPersonId() + " was already added to a household.");
+
+		String homeId = (String) person.getAttributes().getAttribute("homeId");
+
+		int household = homeId != null ? index.getInt(homeId) : -1;
+
+		if (household == -1) {
+			household = homeIds.size();
+			homeIds.add(homeId);
+			members.add(EMPTY);
+
+			if (homeId != null)
+				index.put(homeId, household);
+		}
+
+		EpisimPerson[] m = members.get(household);
+		m = Arrays.copyOf(m, m.length + 1);
+		m[m.length - 1] = person;
+		members.set(household, m);
+
+		person.setHouseholdIndex(household);
+
+		return household;
+	}
+
+	/**
+	 * Number of households.
+	 */
+	public int size() {
+		return homeIds.size();
+	}
+
+	/**
+	 * Home id of a household, or null if its person has no home id.
+	 */
+	public String getHomeId(int household) {
+		return homeIds.get(household);
+	}
+
+	/**
+	 * Members of a household. The returned array must not be modified.
+	 */
+	public EpisimPerson[] getMembers(int household) {
+		return members.get(household);
+	}
+
+	/**
+	 * Members of the household of a person, which is empty if the person is not registered.
+	 */
+	public EpisimPerson[] getMembers(EpisimPerson person) {
+		int household = person.getHouseholdIndex();
+		return household == -1 ? EMPTY : members.get(household);
+	}
+
+}
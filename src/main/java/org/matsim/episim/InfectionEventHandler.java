@@ -47,13 +47,18 @@ import org.matsim.facilities.ActivityFacility;
 import org.matsim.utils.objectattributes.attributable.Attributes;
 import org.matsim.vehicles.Vehicle;
 
-import java.io.Externalizable;
-import java.io.IOException;
-import java.io.ObjectInput;
-import java.io.ObjectOutput;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static org.matsim.episim.EpisimUtils.readChars;
 import static org.matsim.episim.EpisimUtils.writeChars;
@@ -67,7 +72,7 @@ import static org.matsim.episim.EpisimUtils.writeChars;
  * This handler should be used in conjunction with a {@link ReplayHandler}, which filters and preprocesses events.
  * For performance reasons it is not used with the {@link org.matsim.core.api.experimental.events.EventsManager}.
  */
-public final class InfectionEventHandler implements Externalizable {
+public final class InfectionEventHandler implements Externalizable, Closeable {
 	// Some notes:
 
 	// * Especially if we repeat the same events file, then we do not have complete mixing.  So it may happen that only some subpopulations gets infected.
@@ -102,6 +107,12 @@ public final class InfectionEventHandler implements Externalizable {
 	 */
 	private final Map<String, Restriction> restrictions;
 
+	/**
+	 * Immutable view on {@link #restrictions} passed to the policy and models.
+	 * The restrictions are updated in place, so it only needs to be recreated when entries are replaced.
+	 */
+	private ImmutableMap<String, Restriction> restrictionView;
+
 	/**
 	 * Policy that will be enforced at the end of each day.
 	 */
@@ -129,6 +140,23 @@ public final class InfectionEventHandler implements Externalizable {
 
 	private final TestingModel testingModel;
 
+	/**
+	 * Households of all persons.
+	 */
+	private final HouseholdRegistry households;
+	private final PersonAttributeStore attributeStore;
+
+	/**
+	 * State of all persons, see {@link EpisimConfigGroup#setPersonStateStorage(EpisimConfigGroup.PersonStateStorage)}.
+	 */
+	private final PersonStateBuffer personState;
+
+	/**
+	 * Trajectories shared with other simulations, if bound.
+	 */
+	@Nullable
+	private final PopulationImage populationImage;
+
 	/**
 	 * Scenario with population information.
 	 */
@@ -146,9 +174,40 @@ public final class InfectionEventHandler implements Externalizable {
 	 */
 	private final SplittableRandom localRnd;
 
+	/**
+	 * Counter-based random numbers for person updates, null if the shared {@link #rnd} is used.
+	 */
+	@Nullable
+	private final CounterRandom counterRandom;
+
+	/**
+	 * All persons in iteration order, partitioned into chunks for parallel state updates. Null if updates are sequential.
+	 */
+	private List<EpisimPerson> personList;
+
 	private boolean init = false;
 	private int iteration = 0;
 
+	/**
+	 * Persons in the order they were created, only needed while the initial state is written to cache.
+	 */
+	private List<EpisimPerson> creationOrder;
+
+	/**
+	 * Whether the contact model is skipped for the current day, because no infection can happen.
+	 */
+	private boolean fastForward = false;
+
+	/**
+	 * Whether the contact model is only used for containers marked as contagious for the current day.
+	 */
+	private boolean contagiousOnly = false;
+
+	/**
+	 * Containers visited by each person for every day. Only present if {@link EpisimConfigGroup#isContagiousContainersOnly()} is set.
+	 */
+	private Map<DayOfWeek, Map<EpisimPerson, EpisimContainer<?>[]>> visitedContainers;
+
 	/**
 	 * Most recent infection report for all persons.
 	 */
@@ -157,8 +216,8 @@ public final class InfectionEventHandler implements Externalizable {
 	@Inject
 	public InfectionEventHandler(Config config, Scenario scenario, ProgressionModel progressionModel, EpisimReporting reporting,
 	                             InitialInfectionHandler initialInfections, ContactModel contactModel, VaccinationModel vaccinationModel,
-	                             TestingModel testingModel,
-	                             SplittableRandom rnd) {
+	                             TestingModel testingModel, HouseholdRegistry households, PersonAttributeStore attributeStore,
+	                             Optional<PopulationImage> populationImage, SplittableRandom rnd, CounterRandom counterRandom) {
 		this.config = config;
 		this.episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
 		this.tracingConfig = ConfigUtils.addOrGetModule(config, TracingConfigGroup.class);
@@ -169,12 +228,18 @@ public final class InfectionEventHandler implements Externalizable {
 		this.reporting = reporting;
 		this.rnd = rnd;
 		this.localRnd = new SplittableRandom(config.global().getRandomSeed() + 65536);
+		this.counterRandom = episimConfig.isCounterBasedRandom() ? counterRandom : null;
 		this.progressionModel = progressionModel;
 		this.contactModel = contactModel;
 		this.initialInfections = initialInfections;
 		this.initialInfections.setInfectionsLeft(episimConfig.getInitialInfections());
 		this.vaccinationModel = vaccinationModel;
 		this.testingModel = testingModel;
+		this.households = households;
+		this.attributeStore = attributeStore;
+		this.personState = new PersonStateBuffer(episimConfig.getPersonStateStorage(),
+				Path.of(config.controler().getOutputDirectory()), scenario.getPopulation().getPersons().size());
+		this.populationImage = populationImage.orElse(null);
 	}
 
 	/**
@@ -184,6 +249,14 @@ public final class InfectionEventHandler implements Externalizable {
 		return report;
 	}
 
+	/**
+	 * Release the person state, e.g. a memory-mapped file. The handler can not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		personState.close();
+	}
+
 	/**
 	 * Returns true if more iterations won't change the results anymore and the simulation is finished.
 	 */
@@ -201,6 +274,51 @@ public final class InfectionEventHandler implements Externalizable {
 
 		iteration = 0;
 
+		Path cacheFile = initCacheFile();
+		if (cacheFile != null && Files.exists(cacheFile)) {
+			log.info("Restoring initial state from {}", cacheFile);
+			try {
+				readInitState(cacheFile);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not read initial state from " + cacheFile, e);
+			}
+		} else
+			computeInitialState(events, cacheFile);
+
+		restrictionView = ImmutableMap.copyOf(this.restrictions);
+		policy.init(episimConfig.getStartDate(), restrictionView);
+
+		initialInfections.init(personMap);
+
+		// Clear time-use after first iteration
+		reporting.clearTimeUse();
+
+		if (populationImage != null)
+			shareTrajectories();
+
+		if (episimConfig.isContagiousContainersOnly())
+			collectVisitedContainers(events);
+
+		if (counterRandom != null && !(progressionModel.supportsRandomStreams() && testingModel.supportsRandomStreams()))
+			log.warn("Progression or testing model does not support counter-based random numbers, the shared random generator is used for it instead.");
+
+		if (episimConfig.getStateUpdateChunks() > 1) {
+			log.info("Updating person states in {} parallel chunks", episimConfig.getStateUpdateChunks());
+			personList = new ArrayList<>(personMap.values());
+		}
+
+		init = true;
+	}
+
+	/**
+	 * Creates persons and containers from the events of all days, computes trajectories and container metadata.
+	 *
+	 * @param cacheFile file to store the computed state in, may be null
+	 */
+	private void computeInitialState(Map<DayOfWeek, List<Event>> events, @Nullable Path cacheFile) {
+
+		creationOrder = cacheFile != null ? new ArrayList<>() : null;
+
 		Object2IntMap<EpisimContainer<?>> groupSize = new Object2IntOpenHashMap<>();
 		Object2IntMap<EpisimContainer<?>> totalUsers = new Object2IntOpenHashMap<>();
 		Object2IntMap<EpisimContainer<?>> maxGroupSize = new Object2IntOpenHashMap<>();
@@ -445,11 +563,279 @@ public final class InfectionEventHandler implements Externalizable {
 			}
 		}
 
-		policy.init(episimConfig.getStartDate(), ImmutableMap.copyOf(this.restrictions));
+		if (cacheFile != null) {
+			log.info("Writing initial state to {}", cacheFile);
+			try {
+				writeInitState(cacheFile, maxGroupSize, totalUsers, activityUsage);
+			} catch (IOException e) {
+				// the cache is optional, failure is not fatal
+				log.warn("Could not write initial state to {}", cacheFile, e);
+			}
+		}
 
-		// Clear time-use after first iteration
-		personMap.values().forEach(p -> p.getSpentTime().clear());
-		init = true;
+		creationOrder = null;
+	}
+
+	/**
+	 * File of the cached initial state for the current input, or null if caching is disabled.
+	 */
+	@Nullable
+	private Path initCacheFile() {
+
+		if (episimConfig.getInitCache() == null)
+			return null;
+
+		// state of the contact model built up during init is not part of the cache
+		if (!contactModel.supportsInitCache()) {
+			log.warn("Initial state cache is not supported by {}", contactModel.getClass().getSimpleName());
+			return null;
+		}
+
+		try {
+			Path dir = Path.of(episimConfig.getInitCache());
+			Files.createDirectories(dir);
+			return dir.resolve(InitStateCache.computeKey(config) + ".init");
+		} catch (IOException e) {
+			log.warn("Initial state cache can not be used", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Write persons, trajectories and containers as they are after {@link #computeInitialState(Map, Path)}.
+	 * Persons are written in creation order, so that restoring them draws the same random numbers.
+	 */
+	private void writeInitState(Path file, Object2IntMap<EpisimContainer<?>> maxGroupSize, Object2IntMap<EpisimContainer<?>> totalUsers,
+	                            Map<EpisimContainer<?>, Object2IntMap<String>> activityUsage) throws IOException {
+
+		// written to temporary file first, so that concurrent runs never see a partial file
+		Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+		try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+
+			out.writeInt(InitStateCache.VERSION);
+
+			List<String> types = new ArrayList<>(paramsMap.keySet());
+			Object2IntMap<String> typeIndex = new Object2IntOpenHashMap<>();
+			out.writeInt(types.size());
+			for (String type : types) {
+				typeIndex.put(type, typeIndex.size());
+				writeChars(out, type);
+			}
+
+			out.writeInt(creationOrder.size());
+			for (EpisimPerson person : creationOrder) {
+				writeChars(out, person.getPersonId().toString());
+				person.writeTrajectory(out, typeIndex);
+			}
+
+			out.writeInt(pseudoFacilityMap.size());
+			for (EpisimFacility facility : pseudoFacilityMap.values())
+				writeContainer(out, facility, maxGroupSize, totalUsers, activityUsage);
+
+			out.writeInt(vehicleMap.size());
+			for (EpisimVehicle vehicle : vehicleMap.values())
+				writeContainer(out, vehicle, maxGroupSize, totalUsers, activityUsage);
+		}
+
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void writeContainer(ObjectOutput out, EpisimContainer<?> container, Object2IntMap<EpisimContainer<?>> maxGroupSize,
+	                            Object2IntMap<EpisimContainer<?>> totalUsers, Map<EpisimContainer<?>, Object2IntMap<String>> activityUsage) throws IOException {
+
+		writeChars(out, container.getContainerId().toString());
+
+		out.writeInt(maxGroupSize.containsKey(container) ? maxGroupSize.getInt(container) : -1);
+		out.writeInt(totalUsers.containsKey(container) ? totalUsers.getInt(container) : -1);
+
+		Object2IntMap<String> usage = activityUsage.get(container);
+		out.writeInt(usage != null ? usage.size() : -1);
+		if (usage != null) {
+			for (Object2IntMap.Entry<String> e : usage.object2IntEntrySet()) {
+				writeChars(out, e.getKey());
+				out.writeInt(e.getIntValue());
+			}
+		}
+
+		out.writeInt(container.getMaxGroupSize());
+		out.writeInt(container.getTotalUsers());
+		out.writeInt(container.getTypicalCapacity());
+		out.writeDouble(container.getNumSpaces());
+
+		container.write(out);
+	}
+
+	/**
+	 * Restore the state written by {@link #writeInitState(Path, Object2IntMap, Object2IntMap, Map)}.
+	 */
+	private void readInitState(Path file) throws IOException {
+
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+
+			int version = in.readInt();
+			if (version != InitStateCache.VERSION)
+				throw new IOException("Unsupported version " + version);
+
+			int n = in.readInt();
+			List<EpisimPerson.Activity> types = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
+				types.add(paramsMap.computeIfAbsent(readChars(in).intern(), this::createActivityType));
+
+			int persons = in.readInt();
+			for (int i = 0; i < persons; i++) {
+				Id<Person> id = Id.create(readChars(in), Person.class);
+				EpisimPerson person = createPerson(id);
+				personMap.put(id, person);
+				person.readTrajectory(in, types);
+			}
+
+			Object2IntMap<EpisimContainer<?>> maxGroupSize = new Object2IntOpenHashMap<>();
+			Object2IntMap<EpisimContainer<?>> totalUsers = new Object2IntOpenHashMap<>();
+			Map<EpisimContainer<?>, Object2IntMap<String>> activityUsage = new HashMap<>();
+
+			int facilities = in.readInt();
+			for (int i = 0; i < facilities; i++) {
+				EpisimFacility facility = pseudoFacilityMap.computeIfAbsent(Id.create(readChars(in), ActivityFacility.class), EpisimFacility::new);
+				readContainer(in, facility, maxGroupSize, totalUsers, activityUsage);
+			}
+
+			int vehicles = in.readInt();
+			for (int i = 0; i < vehicles; i++) {
+				EpisimVehicle vehicle = vehicleMap.computeIfAbsent(Id.create(readChars(in), Vehicle.class), EpisimVehicle::new);
+				readContainer(in, vehicle, maxGroupSize, totalUsers, activityUsage);
+			}
+
+			reporting.reportContainerUsage(maxGroupSize, totalUsers, activityUsage);
+		}
+
+		// these always needs to be present
+		paramsMap.computeIfAbsent("tr", this::createActivityType);
+		paramsMap.computeIfAbsent("home", this::createActivityType);
+
+		log.info("Restored {} persons, {} facilities and {} vehicles", personMap.size(), pseudoFacilityMap.size(), vehicleMap.size());
+	}
+
+	private void readContainer(ObjectInput in, EpisimContainer<?> container, Object2IntMap<EpisimContainer<?>> maxGroupSize,
+	                           Object2IntMap<EpisimContainer<?>> totalUsers, Map<EpisimContainer<?>, Object2IntMap<String>> activityUsage) throws IOException {
+
+		int max = in.readInt();
+		if (max != -1)
+			maxGroupSize.put(container, max);
+
+		int total = in.readInt();
+		if (total != -1)
+			totalUsers.put(container, total);
+
+		int n = in.readInt();
+		if (n != -1) {
+			Object2IntMap<String> usage = new Object2IntOpenHashMap<>(n);
+			for (int i = 0; i < n; i++)
+				usage.put(readChars(in).intern(), in.readInt());
+
+			activityUsage.put(container, usage);
+		}
+
+		container.setMaxGroupSize(in.readInt());
+		container.setTotalUsers(in.readInt());
+		container.setTypicalCapacity(in.readInt());
+		container.setNumSpaces(in.readDouble());
+
+		container.read(in, personMap);
+		for (EpisimPerson person : container.getPersons())
+			person.setCurrentContainer(container);
+	}
+
+	/**
+	 * Replace the trajectories of all persons by the ones in the shared {@link PopulationImage}.
+	 */
+	private void shareTrajectories() {
+
+		int max = -1;
+		for (String actType : paramsMap.keySet())
+			max = Math.max(max, populationImage.getTypeIndex(actType));
+
+		EpisimPerson.Activity[] table = new EpisimPerson.Activity[max + 1];
+		for (Map.Entry<String, EpisimPerson.Activity> e : paramsMap.entrySet())
+			table[populationImage.getTypeIndex(e.getKey())] = e.getValue();
+
+		for (EpisimPerson person : personMap.values())
+			person.shareTrajectory(populationImage, table);
+
+		log.info("Shared trajectories of {} persons (image contains {})", personMap.size(), populationImage.size());
+	}
+
+	/**
+	 * Collect the containers each person visits during each day.
+	 */
+	private void collectVisitedContainers(Map<DayOfWeek, List<Event>> events) {
+
+		visitedContainers = new EnumMap<>(DayOfWeek.class);
+		Map<List<Event>, Map<EpisimPerson, EpisimContainer<?>[]>> sameDay = new IdentityHashMap<>(7);
+
+		for (Map.Entry<DayOfWeek, List<Event>> entry : events.entrySet()) {
+
+			Map<EpisimPerson, EpisimContainer<?>[]> visited = sameDay.computeIfAbsent(entry.getValue(), eventsForDay -> {
+
+				Map<EpisimPerson, Set<EpisimContainer<?>>> containers = new IdentityHashMap<>();
+				for (Event event : eventsForDay) {
+
+					EpisimContainer<?> container;
+					if (event instanceof ActivityStartEvent)
+						container = pseudoFacilityMap.get(((ActivityStartEvent) event).getFacilityId());
+					else if (event instanceof ActivityEndEvent)
+						container = pseudoFacilityMap.get(((ActivityEndEvent) event).getFacilityId());
+					else if (event instanceof PersonEntersVehicleEvent)
+						container = vehicleMap.get(((PersonEntersVehicleEvent) event).getVehicleId());
+					else
+						continue;
+
+					EpisimPerson person = personMap.get(((HasPersonId) event).getPersonId());
+					containers.computeIfAbsent(person, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(container);
+				}
+
+				Map<EpisimPerson, EpisimContainer<?>[]> result = new IdentityHashMap<>(containers.size());
+				containers.forEach((person, set) -> result.put(person, set.toArray(new EpisimContainer<?>[0])));
+				return result;
+			});
+
+			visitedContainers.put(entry.getKey(), visited);
+		}
+	}
+
+	/**
+	 * Marks all containers that will be visited by a contagious person at {@code day}.
+	 */
+	private void markContagiousContainers(DayOfWeek day, int iteration) {
+
+		Map<EpisimPerson, EpisimContainer<?>[]> visited = visitedContainers.getOrDefault(day, Map.of());
+
+		int persons = 0;
+		for (EpisimPerson person : personMap.values()) {
+			EpisimPerson.DiseaseStatus status = person.getDiseaseStatus();
+			if (status != EpisimPerson.DiseaseStatus.contagious && status != EpisimPerson.DiseaseStatus.showingSymptoms)
+				continue;
+
+			persons++;
+
+			// the day starts in the current container, which may not appear in the events
+			if (person.isInContainer())
+				person.getCurrentContainer().markContagious(iteration);
+
+			EpisimContainer<?>[] containers = visited.get(person);
+			if (containers != null)
+				for (EpisimContainer<?> container : containers)
+					container.markContagious(iteration);
+		}
+
+		log.debug("Marked containers of {} contagious persons for day {}", persons, iteration);
+	}
+
+	/**
+	 * Whether the contact model needs to be invoked for a container.
+	 */
+	private boolean hasDynamics(EpisimContainer<?> container) {
+		return !fastForward && (!contagiousOnly || container.isContagious(iteration));
 	}
 
 	public void handleEvent(ActivityStartEvent activityStartEvent) {
@@ -472,7 +858,8 @@ public final class InfectionEventHandler implements Externalizable {
 
 		handlePersonTrajectory(episimPerson.getPersonId(), activityStartEvent.getActType());
 
-		contactModel.notifyEnterFacility(episimPerson, episimFacility, now);
+		if (hasDynamics(episimFacility))
+			contactModel.notifyEnterFacility(episimPerson, episimFacility, now);
 	}
 
 	public void handleEvent(ActivityEndEvent activityEndEvent) {
@@ -489,10 +876,11 @@ public final class InfectionEventHandler implements Externalizable {
 						activityEndEvent.getFacilityId() + " but actually is at facility=" + episimFacility.getContainerId().toString();
 
 
-		contactModel.infectionDynamicsFacility(episimPerson, episimFacility, now, activityEndEvent.getActType());
+		if (hasDynamics(episimFacility))
+			contactModel.infectionDynamicsFacility(episimPerson, episimFacility, now, activityEndEvent.getActType());
 
 		double timeSpent = now - episimFacility.getContainerEnteringTime(episimPerson.getPersonId());
-		episimPerson.addSpentTime(activityEndEvent.getActType(), timeSpent);
+		reporting.addSpentTime(activityEndEvent.getActType(), timeSpent);
 
 		episimFacility.removePerson(episimPerson);
 
@@ -514,7 +902,8 @@ public final class InfectionEventHandler implements Externalizable {
 		// add person to vehicle and memorize entering time:
 		episimVehicle.addPerson(episimPerson, now);
 
-		contactModel.notifyEnterVehicle(episimPerson, episimVehicle, now);
+		if (hasDynamics(episimVehicle))
+			contactModel.notifyEnterVehicle(episimPerson, episimVehicle, now);
 	}
 
 	public void handleEvent(PersonLeavesVehicleEvent leavesVehicleEvent) {
@@ -528,12 +917,13 @@ public final class InfectionEventHandler implements Externalizable {
 
 		EpisimPerson episimPerson = this.personMap.get(leavesVehicleEvent.getPersonId());
 
-		contactModel.infectionDynamicsVehicle(episimPerson, episimVehicle, now);
+		if (hasDynamics(episimVehicle))
+			contactModel.infectionDynamicsVehicle(episimPerson, episimVehicle, now);
 
 		double timeSpent = now - episimVehicle.getContainerEnteringTime(episimPerson.getPersonId());
 
 		// This type depends on the params defined in the scenario
-		episimPerson.addSpentTime("pt", timeSpent);
+		reporting.addSpentTime("pt", timeSpent);
 
 		// remove person from vehicle:
 		episimVehicle.removePerson(episimPerson);
@@ -555,9 +945,14 @@ public final class InfectionEventHandler implements Externalizable {
 
 		boolean traceable = localRnd.nextDouble() < tracingConfig.getEquipmentRate();
 
-		EpisimPerson p = new EpisimPerson(id, attrs, traceable, reporting);
+		EpisimPerson p = new EpisimPerson(id, attrs, traceable, reporting, personState);
+		households.add(p);
+		attributeStore.add(p, attrs);
 
-		Double compliance = EpisimUtils.findValidEntry(vaccinationConfig.getCompliancePerAge(), 1.0, p.getAgeOrDefault(-1));
+		if (creationOrder != null)
+			creationOrder.add(p);
+
+		double compliance = vaccinationConfig.getCompliancePerAgeTimeline().get(p.getAgeOrDefault(-1));
 
 		if (compliance == 0.0)
 			p.setVaccinable(false);
@@ -570,7 +965,7 @@ public final class InfectionEventHandler implements Externalizable {
 	 * Creates the home facility of a person.
 	 */
 	private EpisimFacility createHomeFacility(EpisimPerson person) {
-		String homeId = (String) person.getAttributes().getAttribute("homeId");
+		String homeId = households.getHomeId(person.getHouseholdIndex());
 		if (homeId == null)
 			homeId = "home_of_" + person.getPersonId().toString();
 
@@ -656,17 +1051,37 @@ public final class InfectionEventHandler implements Externalizable {
 		testingModel.setIteration(iteration);
 		progressionModel.beforeStateUpdates(personMap, iteration, this.report);
 		testingModel.beforeStateUpdates(personMap, iteration, this.report);
-		for (EpisimPerson person : personMap.values()) {
-			checkAndHandleEndOfNonCircularTrajectory(person, day);
-			person.resetCurrentPositionInTrajectory(day);
-			progressionModel.updateState(person, iteration);
-			testingModel.performTesting(person, iteration);
+
+		boolean parallelUpdates = progressionModel.supportsParallelUpdates() && testingModel.supportsParallelUpdates();
+
+		if (personList != null && parallelUpdates) {
+			// container moves have side effects on other persons and are always done sequentially
+			for (EpisimPerson person : personMap.values()) {
+				checkAndHandleEndOfNonCircularTrajectory(person, day);
+				person.resetCurrentPositionInTrajectory(day);
+			}
+
+			updateStatesInParallel(iteration);
+		} else {
+			for (EpisimPerson person : personMap.values()) {
+				checkAndHandleEndOfNonCircularTrajectory(person, day);
+				person.resetCurrentPositionInTrajectory(day);
+
+				if (counterRandom != null)
+					updateStateCounterBased(person, iteration);
+				else {
+					progressionModel.updateState(person, iteration);
+					testingModel.performTesting(person, iteration);
+				}
+			}
 		}
 
-		int available = EpisimUtils.findValidEntry(vaccinationConfig.getVaccinationCapacity(), 0, date);
+		progressionModel.afterStateUpdates(personMap, iteration);
+
+		int available = vaccinationConfig.getVaccinationCapacityTimeline().getInt(date);
 		vaccinationModel.handleVaccination(personMap, false, (int) (available * episimConfig.getSampleSize()), iteration, now);
 
-		available = EpisimUtils.findValidEntry(vaccinationConfig.getReVaccinationCapacity(), 0, date);
+		available = vaccinationConfig.getReVaccinationCapacityTimeline().getInt(date);
 		vaccinationModel.handleVaccination(personMap, true, (int) (available * episimConfig.getSampleSize()), iteration, now);
 
 		this.iteration = iteration;
@@ -680,11 +1095,113 @@ public final class InfectionEventHandler implements Externalizable {
 		reporting.reportTimeUse(restrictions.keySet(), personMap.values(), iteration, report.date);
 		reporting.reportDiseaseImport(infected, iteration, report.date);
 
-		ImmutableMap<String, Restriction> im = ImmutableMap.copyOf(this.restrictions);
-		policy.updateRestrictions(report, im);
-		contactModel.setRestrictionsForIteration(iteration, im);
+		policy.updateRestrictions(report, restrictionView);
+		contactModel.setRestrictionsForIteration(iteration, restrictionView);
 		reporting.reportRestrictions(restrictions, iteration, report.date);
 
+		fastForward = canFastForward(iteration);
+		if (fastForward)
+			log.debug("Fast-forwarding day {}", iteration);
+
+		contagiousOnly = !fastForward && visitedContainers != null && contactModel.supportsFastForward() && !needsContacts(iteration);
+		if (contagiousOnly)
+			markContagiousContainers(day, iteration);
+	}
+
+	/**
+	 * Whether the contact dynamics can be skipped for this day. This is the case if nobody is able to infect others,
+	 * no person is in quarantine and contacts are not needed for tracing.
+	 * Persons are still moved between their containers, so time use and the positions at the end of the day are the same.
+	 */
+	private boolean canFastForward(int iteration) {
+
+		if (!episimConfig.isFastForward() || !contactModel.supportsFastForward())
+			return false;
+
+		if (report.nContagious > 0 || report.nShowingSymptoms > 0 || report.nSeriouslySick > 0 || report.nCritical > 0)
+			return false;
+
+		if (report.nInQuarantineFull > 0 || report.nInQuarantineHome > 0)
+			return false;
+
+		return !needsContacts(iteration);
+	}
+
+	/**
+	 * Whether complete contact lists are needed for tracing at this day.
+	 * Contacts of persons that are infected but not yet contagious may be traced later.
+	 */
+	private boolean needsContacts(int iteration) {
+		return tracingConfig.getStrategy() != TracingConfigGroup.Strategy.NONE
+				&& iteration >= tracingConfig.getPutTraceablePersonsInQuarantineAfterDay();
+	}
+
+	/**
+	 * Performs progression and testing of one person, with random numbers of its own {@link CounterRandom} streams for this day.
+	 * Models without support for random streams use the shared random generator.
+	 */
+	private void updateStateCounterBased(EpisimPerson person, int iteration) {
+		long entity = CounterRandom.entity(person.getPersonId());
+
+		if (progressionModel.supportsRandomStreams())
+			progressionModel.updateState(person, iteration, counterRandom.stream(iteration, entity, CounterRandom.Purpose.progression));
+		else
+			progressionModel.updateState(person, iteration);
+
+		if (testingModel.supportsRandomStreams())
+			testingModel.performTesting(person, iteration, counterRandom.stream(iteration, entity, CounterRandom.Purpose.testing));
+		else
+			testingModel.performTesting(person, iteration);
+	}
+
+	/**
+	 * Performs progression and testing of all persons in fixed chunks.
+	 * Each chunk draws from its own random stream split from the shared one, so the result does not depend on thread scheduling.
+	 * With counter-based random numbers each person uses its own streams, which makes the result independent of the chunks as well.
+	 */
+	private void updateStatesInParallel(int iteration) {
+
+		int chunks = episimConfig.getStateUpdateChunks();
+		int n = personList.size();
+
+		List<Callable<EpisimReporting.StatusBuffer>> tasks = new ArrayList<>(chunks);
+		for (int i = 0; i < chunks; i++) {
+
+			int from = (int) ((long) n * i / chunks);
+			int to = (int) ((long) n * (i + 1) / chunks);
+			SplittableRandom chunkRnd = counterRandom == null ? rnd.split() : null;
+
+			tasks.add(() -> {
+				EpisimReporting.StatusBuffer buffer = new EpisimReporting.StatusBuffer();
+				reporting.bufferPersonStatus(buffer);
+				try {
+					for (int j = from; j < to; j++) {
+						EpisimPerson person = personList.get(j);
+						if (chunkRnd == null)
+							updateStateCounterBased(person, iteration);
+						else {
+							progressionModel.updateState(person, iteration, chunkRnd);
+							testingModel.performTesting(person, iteration, chunkRnd);
+						}
+					}
+				} finally {
+					reporting.bufferPersonStatus(null);
+				}
+				return buffer;
+			});
+		}
+
+		try {
+			// status changes are published in chunk order
+			for (Future<EpisimReporting.StatusBuffer> f : ForkJoinPool.commonPool().invokeAll(tasks)) {
+				reporting.flushPersonStatus(f.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Parallel state updates were interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Parallel state update failed", e.getCause());
+		}
 	}
 
 	/**
@@ -711,7 +1228,7 @@ public final class InfectionEventHandler implements Externalizable {
 
 				contactModel.infectionDynamicsFacility(person, lastFacility, now, actType);
 				double timeSpent = now - lastFacility.getContainerEnteringTime(person.getPersonId());
-				person.addSpentTime(actType, timeSpent);
+				reporting.addSpentTime(actType, timeSpent);
 
 				if (iteration > 1 && timeSpent > 86400 && !actType.equals("home")) {
 					// there might be some implausible trajectories
@@ -727,7 +1244,7 @@ public final class InfectionEventHandler implements Externalizable {
 			} else if (container instanceof EpisimVehicle && this.vehicleMap.containsKey(lastFacilityId)) {
 				EpisimVehicle lastVehicle = this.vehicleMap.get(lastFacilityId);
 				contactModel.infectionDynamicsVehicle(person, lastVehicle, now);
-				person.addSpentTime("pt", now - lastVehicle.getContainerEnteringTime(person.getPersonId()));
+				reporting.addSpentTime("pt", now - lastVehicle.getContainerEnteringTime(person.getPersonId()));
 
 				lastVehicle.removePerson(person);
 				EpisimFacility firstFacility = this.pseudoFacilityMap.get(firstFacilityId);
@@ -818,11 +1335,11 @@ public final class InfectionEventHandler implements Externalizable {
 		}
 
 
-		ImmutableMap<String, Restriction> im = ImmutableMap.copyOf(this.restrictions);
+		restrictionView = ImmutableMap.copyOf(this.restrictions);
 
-		policy.restore(episimConfig.getStartDate().plusDays(iteration), im);
+		policy.restore(episimConfig.getStartDate().plusDays(iteration), restrictionView);
 
-		contactModel.setRestrictionsForIteration(iteration, im);
+		contactModel.setRestrictionsForIteration(iteration, restrictionView);
 	}
 
 	/**
@@ -0,0 +1,146 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2020 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim;
+
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.utils.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DayOfWeek;
+import java.util.TreeSet;
+
+/**
+ * Identifies cached initial states of the {@link InfectionEventHandler}, see {@link EpisimConfigGroup#setInitCache(String)}.
+ */
+final class InitStateCache {
+
+	/**
+	 * Version of the file format, needs to be increased when the written state changes.
+	 */
+	static final int VERSION = 1;
+
+	private InitStateCache() {
+	}
+
+	/**
+	 * Computes a hash over all input files and the config values that are used during initialization.
+	 * Input files are identified by their location, size and modification time, or by their full content if
+	 * {@link EpisimConfigGroup#isInitCacheContentHash()} is set.
+	 */
+	static String computeKey(Config config) throws IOException {
+
+		EpisimConfigGroup episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+
+		update(digest, "version=" + VERSION);
+		update(digest, "facilitiesHandling=" + episimConfig.getFacilitiesHandling());
+		update(digest, "sampleSize=" + episimConfig.getSampleSize());
+		update(digest, "contentHash=" + episimConfig.isInitCacheContentHash());
+
+		for (EpisimConfigGroup.InfectionParams params : episimConfig.getInfectionParams()) {
+			update(digest, params.getContainerName() + "=" + params.getMappedNames() + ";" + params.getSpacesPerFacility());
+		}
+
+		for (EpisimConfigGroup.EventFileParams input : episimConfig.getInputEventsFiles()) {
+			update(digest, "events=" + new TreeSet<DayOfWeek>(input.getDays()));
+			update(digest, IOUtils.resolveFileOrResource(input.getPath()), episimConfig.isInitCacheContentHash());
+		}
+
+		if (config.plans().getInputFile() != null)
+			update(digest, ConfigGroup.getInputFileURL(config.getContext(), config.plans().getInputFile()), episimConfig.isInitCacheContentHash());
+
+		if (config.vehicles().getVehiclesFile() != null)
+			update(digest, ConfigGroup.getInputFileURL(config.getContext(), config.vehicles().getVehiclesFile()), episimConfig.isInitCacheContentHash());
+
+		StringBuilder key = new StringBuilder();
+		for (byte b : digest.digest())
+			key.append(String.format("%02x", b));
+
+		return key.toString();
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private static void update(MessageDigest digest, URL url, boolean content) throws IOException {
+
+		if (!content) {
+			update(digest, url.toString() + ";" + describe(url));
+			return;
+		}
+
+		byte[] buffer = new byte[1 << 16];
+		try (InputStream in = url.openStream()) {
+			int n;
+			while ((n = in.read(buffer)) != -1)
+				digest.update(buffer, 0, n);
+		}
+		digest.update((byte) 0);
+	}
+
+	/**
+	 * Size and modification time of a file, without reading its content.
+	 */
+	private static String describe(URL url) throws IOException {
+
+		if ("file".equals(url.getProtocol())) {
+			Path path;
+			try {
+				path = Paths.get(url.toURI());
+			} catch (URISyntaxException e) {
+				path = Path.of(url.getPath());
+			}
+
+			return Files.size(path) + ";" + Files.getLastModifiedTime(path).toMillis();
+		}
+
+		// remote resources or files within jars
+		URLConnection conn = url.openConnection();
+		try {
+			return conn.getContentLengthLong() + ";" + conn.getLastModified();
+		} finally {
+			// only the header is needed
+			if (conn instanceof HttpURLConnection)
+				((HttpURLConnection) conn).disconnect();
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2021 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Typed, column-wise copy of person attributes that are read frequently during the simulation.
+ * Columns are declared by the models that need them and filled once when a person is created, lookups are done by array index
+ * instead of searching the {@link Attributes} of a person.
+ * <p>
+ * Columns have to be declared before persons are added, i.e. in the constructor of injected classes.
+ * Persons that have not been added to this store, e.g. in tests, are read from their attributes directly.
+ */
+public final class PersonAttributeStore {
+
+	private final Map<String, Column> columns = new LinkedHashMap<>();
+
+	/**
+	 * Persons that have been added, by their id index.
+	 */
+	private final BitSet added = new BitSet();
+
+	/**
+	 * Number of rows of all columns.
+	 */
+	private int capacity;
+
+	/**
+	 * Declare a column with numeric values.
+	 *
+	 * @param defaultValue value for persons without this attribute
+	 */
+	public DoubleColumn declareDouble(String attribute, double defaultValue) {
+		return declare(attribute, false, DoubleColumn.class, () -> new DoubleColumn(attribute, false, defaultValue));
+	}
+
+	/**
+	 * Declare a column with numeric values that every person must have. Adding or reading a person without this attribute fails.
+	 */
+	public DoubleColumn declareDouble(String attribute) {
+		return declare(attribute, true, DoubleColumn.class, () -> new DoubleColumn(attribute, true, Double.NaN));
+	}
+
+	/**
+	 * Declare a column with integer values.
+	 *
+	 * @param defaultValue value for persons without this attribute
+	 */
+	public IntColumn declareInt(String attribute, int defaultValue) {
+		return declare(attribute, false, IntColumn.class, () -> new IntColumn(attribute, false, defaultValue));
+	}
+
+	/**
+	 * Declare a column with string values. Values are dictionary-coded, persons without this attribute have value null.
+	 */
+	public StringColumn declareString(String attribute) {
+		return declare(attribute, false, StringColumn.class, () -> new StringColumn(attribute));
+	}
+
+	private synchronized <T extends Column> T declare(String attribute, boolean required, Class<T> type, Supplier<T> factory) {
+
+		Column column = columns.get(attribute);
+		if (column != null) {
+			if (!type.isInstance(column))
+				throw new IllegalStateException("Attribute " + attribute + " was already declared as " + column.getClass().getSimpleName());
+
+			if (required != column.required)
+				throw new IllegalStateException("Attribute " + attribute + " was already declared " + (column.required ? "as required." : "with a default value."));
+
+			return type.cast(column);
+		}
+
+		if (!added.isEmpty())
+			throw new IllegalStateException("Attribute " + attribute + " must be declared before persons are added.");
+
+		T c = factory.get();
+		c.resize(capacity);
+		columns.put(attribute, c);
+		return c;
+	}
+
+	/**
+	 * Copy the declared attributes of a person into the columns.
+	 */
+	void add(EpisimPerson person, Attributes attrs) {
+
+		int i = person.getPersonId().index();
+		if (i >= capacity) {
+			capacity = Math.max(i + 1, capacity + (capacity >> 1));
+			for (Column column : columns.values())
+				column.resize(capacity);
+		}
+
+		for (Column column : columns.values())
+			column.set(i, column.check(person, attrs.getAttribute(column.attribute)));
+
+		added.set(i);
+	}
+
+	private boolean contains(EpisimPerson person) {
+		return added.get(person.getPersonId().index());
+	}
+
+	private static Number toNumber(Object value) {
+		return value instanceof Number ? (Number) value : Double.valueOf(value.toString());
+	}
+
+	/**
+	 * Common base of all columns.
+	 */
+	private abstract static class Column {
+
+		final String attribute;
+
+		/**
+		 * Whether all persons must have this attribute.
+		 */
+		final boolean required;
+
+		private Column(String attribute, boolean required) {
+			this.attribute = attribute;
+			this.required = required;
+		}
+
+		/**
+		 * Check that a required value is present.
+		 */
+		final Object check(EpisimPerson person, Object value) {
+			if (value == null && required)
+				throw new IllegalStateException("Person " + person.getPersonId() + " has no attribute " + attribute);
+
+			return value;
+		}
+
+		abstract void resize(int size);
+
+		abstract void set(int i, Object value);
+	}
+
+	/**
+	 * Column of double values.
+	 */
+	public final class DoubleColumn extends Column {
+
+		private final double defaultValue;
+		private double[] values = new double[0];
+
+		private DoubleColumn(String attribute, boolean required, double defaultValue) {
+			super(attribute, required);
+			this.defaultValue = defaultValue;
+		}
+
+		@Override
+		void resize(int size) {
+			values = Arrays.copyOf(values, size);
+		}
+
+		@Override
+		void set(int i, Object value) {
+			values[i] = value == null ? defaultValue : toNumber(value).doubleValue();
+		}
+
+		/**
+		 * Value of the attribute for a person.
+		 */
+		public double get(EpisimPerson person) {
+			if (contains(person))
+				return values[person.getPersonId().index()];
+
+			Object value = check(person, person.getAttributes().getAttribute(attribute));
+			return value == null ? defaultValue : toNumber(value).doubleValue();
+		}
+	}
+
+	/**
+	 * Column of int values.
+	 */
+	public final class IntColumn extends Column {
+
+		private final int defaultValue;
+		private int[] values = new int[0];
+
+		private IntColumn(String attribute, boolean required, int defaultValue) {
+			super(attribute, required);
+			this.defaultValue = defaultValue;
+		}
+
+		@Override
+		void resize(int size) {
+			values = Arrays.copyOf(values, size);
+		}
+
+		@Override
+		void set(int i, Object value) {
+			values[i] = value == null ? defaultValue : toNumber(value).intValue();
+		}
+
+		/**
+		 * Value of the attribute for a person.
+		 */
+		public int get(EpisimPerson person) {
+			if (contains(person))
+				return values[person.getPersonId().index()];
+
+			Object value = check(person, person.getAttributes().getAttribute(attribute));
+			return value == null ? defaultValue : toNumber(value).intValue();
+		}
+	}
+
+	/**
+	 * Dictionary-coded column of string values.
+	 */
+	public final class StringColumn extends Column {
+
+		private final Object2IntMap<String> codes = new Object2IntOpenHashMap<>();
+		private final List<String> dictionary = new ArrayList<>();
+
+		/**
+		 * Code of each value, -1 for null.
+		 */
+		private int[] values = new int[0];
+
+		private StringColumn(String attribute) {
+			super(attribute, false);
+			codes.defaultReturnValue(-1);
+		}
+
+		@Override
+		void resize(int size) {
+			int from = values.length;
+			values = Arrays.copyOf(values, size);
+			Arrays.fill(values, from, size, -1);
+		}
+
+		@Override
+		void set(int i, Object value) {
+			if (value == null) {
+				values[i] = -1;
+				return;
+			}
+
+			String s = value.toString();
+			int code = codes.getInt(s);
+			if (code == -1) {
+				code = dictionary.size();
+				dictionary.add(s);
+				codes.put(s, code);
+			}
+
+			values[i] = code;
+		}
+
+		/**
+		 * Value of the attribute for a person, or null if it is not set.
+		 */
+		public String get(EpisimPerson person) {
+			if (contains(person)) {
+				int code = values[person.getPersonId().index()];
+				return code == -1 ? null : dictionary.get(code);
+			}
+
+			Object value = person.getAttributes().getAttribute(attribute);
+			return value == null ? null : value.toString();
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2021 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Mutable scalar state of all persons, stored with a fixed stride of {@link #STRIDE} bytes per person in one buffer.
+ * Depending on {@link EpisimConfigGroup.PersonStateStorage} the buffer is on the heap, off-heap or a memory-mapped file.
+ * <p>
+ * Persons are only added during initialization. Concurrent access to different persons is safe.
+ * The buffer needs to be closed when it is not used anymore, which removes the mapped file.
+ */
+final class PersonStateBuffer implements Closeable {
+
+	private static final Logger log = LogManager.getLogger(PersonStateBuffer.class);
+
+	static final int STATUS = 0;
+	static final int QUARANTINE_STATUS = 1;
+	static final int VIRUS_STRAIN = 2;
+	static final int VACCINATION_STATUS = 3;
+	static final int RE_VACCINATION_STATUS = 4;
+	static final int TEST_STATUS = 5;
+	static final int VACCINATION_DATE = 6;
+	static final int QUARANTINE_DATE = 8;
+	static final int TEST_DATE = 10;
+	static final int POSITION_IN_TRAJECTORY = 12;
+
+	/**
+	 * Bytes per person.
+	 */
+	static final int STRIDE = 16;
+
+	private final EpisimConfigGroup.PersonStateStorage storage;
+
+	/**
+	 * Channel of the mapped file, only used for {@link EpisimConfigGroup.PersonStateStorage#memoryMapped}.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The mapped file, only used for {@link EpisimConfigGroup.PersonStateStorage#memoryMapped}.
+	 */
+	private final Path file;
+
+	private ByteBuffer buffer;
+	private int size;
+
+	/**
+	 * Creates a buffer on the heap.
+	 */
+	PersonStateBuffer(int capacity) {
+		this(EpisimConfigGroup.PersonStateStorage.heap, null, capacity);
+	}
+
+	/**
+	 * Creates a new buffer.
+	 *
+	 * @param directory directory for the mapped file, only needed for {@link EpisimConfigGroup.PersonStateStorage#memoryMapped}
+	 * @param capacity  initial number of persons
+	 */
+	PersonStateBuffer(EpisimConfigGroup.PersonStateStorage storage, Path directory, int capacity) {
+		this.storage = storage;
+
+		if (storage == EpisimConfigGroup.PersonStateStorage.memoryMapped) {
+			try {
+				Files.createDirectories(directory);
+				file = Files.createTempFile(directory, "personState", ".bin");
+				// fallback in case the buffer is never closed
+				file.toFile().deleteOnExit();
+				channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		} else {
+			file = null;
+			channel = null;
+		}
+
+		buffer = allocate(Math.max(1, capacity));
+	}
+
+	private ByteBuffer allocate(int capacity) {
+
+		long bytes = (long) capacity * STRIDE;
+		if (bytes > Integer.MAX_VALUE)
+			throw new IllegalStateException("Too many persons for one state buffer: " + capacity);
+
+		ByteBuffer b;
+		switch (storage) {
+			case heap:
+				b = ByteBuffer.allocate((int) bytes);
+				break;
+			case offHeap:
+				b = ByteBuffer.allocateDirect((int) bytes);
+				break;
+			case memoryMapped:
+				try {
+					// the file is extended as needed, existing content is kept
+					b = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				break;
+			default:
+				throw new IllegalStateException("Unknown storage: " + storage);
+		}
+
+		return b.order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Reserve the state of a new person. Its initial state is zero.
+	 *
+	 * @return index of the person in this buffer
+	 */
+	synchronized int add() {
+
+		int capacity = buffer.capacity() / STRIDE;
+		if (size == capacity) {
+			ByteBuffer b = allocate(Math.max(capacity + 1, (int) Math.min(Integer.MAX_VALUE / STRIDE, capacity * 2L)));
+
+			// mapped buffers share the content of the file
+			if (storage != EpisimConfigGroup.PersonStateStorage.memoryMapped) {
+				ByteBuffer src = buffer.duplicate();
+				src.clear();
+				b.put(src);
+				b.clear();
+			}
+
+			buffer = b;
+		}
+
+		return size++;
+	}
+
+	/**
+	 * Number of persons.
+	 */
+	int size() {
+		return size;
+	}
+
+	byte getByte(int person, int field) {
+		return buffer.get(person * STRIDE + field);
+	}
+
+	void putByte(int person, int field, byte value) {
+		buffer.put(person * STRIDE + field, value);
+	}
+
+	short getShort(int person, int field) {
+		return buffer.getShort(person * STRIDE + field);
+	}
+
+	void putShort(int person, int field, short value) {
+		buffer.putShort(person * STRIDE + field, value);
+	}
+
+	int getInt(int person, int field) {
+		return buffer.getInt(person * STRIDE + field);
+	}
+
+	void putInt(int person, int field, int value) {
+		buffer.putInt(person * STRIDE + field, value);
+	}
+
+	/**
+	 * Release the buffer and delete the mapped file. The state of all persons is not accessible afterwards.
+	 * Errors are only logged, so that closing never hides the failure of a run.
+	 */
+	@Override
+	public synchronized void close() {
+
+		buffer = null;
+
+		if (channel == null)
+			return;
+
+		try {
+			channel.close();
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Could not delete person state file {}", file, e);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2021 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.facilities.ActivityFacility;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable trajectories and day structures of the population, which can be shared between simulations running on the same events.
+ * The first simulation that is initialized publishes its trajectories, all following ones reuse identical ones instead of keeping their own copy.
+ * Infection params are not part of the image, because they are configured for each run.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class PopulationImage {
+
+	/**
+	 * Index of each activity type.
+	 */
+	private final Object2IntMap<String> typeIndex = new Object2IntOpenHashMap<>();
+
+	/**
+	 * Published trajectory of each person.
+	 */
+	private final Map<Id<Person>, Entry> entries = new ConcurrentHashMap<>();
+
+	public PopulationImage() {
+		typeIndex.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Return the index of an activity type, which is the same for all simulations using this image.
+	 */
+	public synchronized int getTypeIndex(String actType) {
+
+		int idx = typeIndex.getInt(actType);
+		if (idx == -1) {
+			idx = typeIndex.size();
+			if (idx > Short.MAX_VALUE)
+				throw new IllegalStateException("Too many activity types: " + idx);
+
+			typeIndex.put(actType, idx);
+		}
+
+		return idx;
+	}
+
+	/**
+	 * Number of persons in the image.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Publish the entry of a person or return the already published one, if it is identical.
+	 */
+	Entry share(Id<Person> personId, Entry entry) {
+		Entry existing = entries.putIfAbsent(personId, entry);
+		if (existing != null && existing.equals(entry))
+			return existing;
+
+		return entry;
+	}
+
+	/**
+	 * Trajectory and day structure of one person. The arrays must not be modified once published.
+	 */
+	static final class Entry {
+
+		final short[] types;
+		final int[] startOfDay;
+		final int[] endOfDay;
+		final Id<ActivityFacility>[] firstFacilityId;
+
+		Entry(short[] types, int[] startOfDay, int[] endOfDay, Id<ActivityFacility>[] firstFacilityId) {
+			this.types = types;
+			this.startOfDay = startOfDay;
+			this.endOfDay = endOfDay;
+			this.firstFacilityId = firstFacilityId;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Entry entry = (Entry) o;
+			return Arrays.equals(types, entry.types) &&
+					Arrays.equals(startOfDay, entry.startOfDay) &&
+					Arrays.equals(endOfDay, entry.endOfDay) &&
+					Arrays.equals(firstFacilityId, entry.firstFacilityId);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = Arrays.hashCode(types);
+			result = 31 * result + Arrays.hashCode(startOfDay);
+			result = 31 * result + Arrays.hashCode(endOfDay);
+			result = 31 * result + Arrays.hashCode(firstFacilityId);
+			return result;
+		}
+	}
+}
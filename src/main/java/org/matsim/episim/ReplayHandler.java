@@ -38,15 +38,24 @@ import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.internal.HasPersonId;
+import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
 import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.utils.io.IOUtils;
 import org.matsim.facilities.ActivityFacility;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.time.DayOfWeek;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
 
 
 /**
@@ -63,17 +72,9 @@ public final class ReplayHandler {
 	@Beta
 	private static final boolean ADJUST_LEISURE = false;
 	/**
-	 * Used when adjust leisure is true. Mark persons that already started their day.
+	 * Size of the buffer between decompression and parsing.
 	 */
-	private final Set<Id<Person>> started = Collections.newSetFromMap(new IdentityHashMap<>());
-	/**
-	 * Rng for leisure adjustment.
-	 */
-	private SplittableRandom rnd;
-	/**
-	 * Number of adjusted leisure activities.
-	 */
-	private int adjusted = 0;
+	private static final int PIPE_SIZE = 1 << 20;
 	/**
 	 * Needed in createEpisimFacilityId.
 	 */
@@ -85,21 +86,28 @@ public final class ReplayHandler {
 
 	/**
 	 * Constructor with optional scenario. Events will be read from given {@link EpisimConfigGroup#getInputEventsFiles()}.
+	 * Files are parsed one after another in configuration order, so that ids are always created in the same order.
 	 */
 	@Inject
 	public ReplayHandler(EpisimConfigGroup config, @Nullable Scenario scenario) {
 		this.scenario = scenario;
 		this.episimConfig = config;
 
+		int adjusted = 0;
 		for (EpisimConfigGroup.EventFileParams input : config.getInputEventsFiles()) {
 
-			rnd = new SplittableRandom(0);
+			EventReader reader;
+			try {
+				reader = readEvents(input.getPath());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Reading events was interrupted", e);
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not read events from " + input.getPath(), e);
+			}
 
-			List<Event> eventsForDay = new ArrayList<>();
-			EventsManager manager = EventsUtils.createEventsManager();
-			manager.addHandler(new EventReader(eventsForDay));
-			EventsUtils.readEvents(manager, input.getPath());
-			manager.finishProcessing();
+			List<Event> eventsForDay = reader.events;
+			adjusted += reader.adjusted;
 
 			log.info("Read in {} events for {}, with time range {} - {}", eventsForDay.size(), input.getDays(), eventsForDay.get(0).getTime(),
 					eventsForDay.get(eventsForDay.size() - 1).getTime());
@@ -110,8 +118,6 @@ public final class ReplayHandler {
 
 				events.put(day, eventsForDay);
 			}
-
-			started.clear();
 		}
 
 		if (ADJUST_LEISURE) {
@@ -136,6 +142,56 @@ public final class ReplayHandler {
 		this.episimConfig = null;
 	}
 
+	/**
+	 * Read one events file. Compressed xml files are decompressed in a separate thread while being parsed,
+	 * all other files are read with the format detection of {@link EventsUtils}.
+	 */
+	private EventReader readEvents(String path) throws IOException, InterruptedException {
+
+		List<Event> eventsForDay = new ArrayList<>();
+		EventReader reader = new EventReader(eventsForDay);
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler(reader);
+
+		if (!path.endsWith(".xml.gz")) {
+			EventsUtils.readEvents(manager, path);
+			manager.finishProcessing();
+			return reader;
+		}
+
+		PipedInputStream in = new PipedInputStream(PIPE_SIZE);
+		PipedOutputStream out = new PipedOutputStream(in);
+		AtomicReference<IOException> error = new AtomicReference<>();
+
+		Thread decompress = new Thread(() -> {
+			try (InputStream gz = new GZIPInputStream(IOUtils.resolveFileOrResource(path).openStream(), PIPE_SIZE); out) {
+				gz.transferTo(out);
+			} catch (IOException e) {
+				error.set(e);
+			}
+		}, "decompress-" + path);
+
+		decompress.setDaemon(true);
+		decompress.start();
+
+		try (in) {
+			new MatsimEventsReader(manager).readStream(in, ControlerConfigGroup.EventsFileFormat.xml);
+		} catch (RuntimeException e) {
+			// parse error may be caused by failed decompression
+			decompress.join();
+			if (error.get() != null)
+				e.addSuppressed(error.get());
+			throw e;
+		}
+
+		decompress.join();
+		if (error.get() != null)
+			throw error.get();
+
+		manager.finishProcessing();
+		return reader;
+	}
+
 	/**
 	 * Replays event add modifies attributes based on current iteration.
 	 */
@@ -161,12 +217,25 @@ public final class ReplayHandler {
 	}
 
 	/**
-	 * Helper class to read events one time.
+	 * Helper class to read events one time. Each events file uses its own reader.
 	 */
 	private final class EventReader implements BasicEventHandler {
 
 		private final List<Event> events;
 
+		/**
+		 * Used when adjust leisure is true. Mark persons that already started their day.
+		 */
+		private final Set<Id<Person>> started = Collections.newSetFromMap(new IdentityHashMap<>());
+		/**
+		 * Rng for leisure adjustment.
+		 */
+		private final SplittableRandom rnd = new SplittableRandom(0);
+		/**
+		 * Number of adjusted leisure activities.
+		 */
+		private int adjusted = 0;
+
 		private EventReader(List<Event> events) {
 			this.events = events;
 		}
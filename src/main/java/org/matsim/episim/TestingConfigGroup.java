@@ -38,6 +38,11 @@ public class TestingConfigGroup extends ReflectiveConfigGroup {
 	 */
 	private final Map<LocalDate, Integer> testingCapacity = new TreeMap<>();
 
+	/**
+	 * Compiled {@link #testingCapacity}, null until first requested.
+	 */
+	private Timeline testingCapacityTimeline;
+
 	/**
 	 * Probability that a not infected person is reported as positive.
 	 */
@@ -63,6 +68,11 @@ public class TestingConfigGroup extends ReflectiveConfigGroup {
 	 */
 	private final Map<String, NavigableMap<LocalDate, Double>> ratePerActivity = new HashMap<>();
 
+	/**
+	 * Compiled {@link #ratePerActivity}, null until first requested.
+	 */
+	private Map<String, Timeline> ratePerActivityTimeline;
+
 	/**
 	 * Tracing and containment strategy.
 	 */
@@ -113,12 +123,22 @@ public class TestingConfigGroup extends ReflectiveConfigGroup {
 	public void setTestingCapacity_pers_per_day(Map<LocalDate, Integer> capacity) {
 		testingCapacity.clear();
 		testingCapacity.putAll(capacity);
+		testingCapacityTimeline = null;
 	}
 
 	public Map<LocalDate, Integer> getTestingCapacity() {
 		return testingCapacity;
 	}
 
+	/**
+	 * Testing capacity compiled for daily lookup, see {@link Timeline}.
+	 */
+	public Timeline getTestingCapacityTimeline() {
+		if (testingCapacityTimeline == null)
+			testingCapacityTimeline = Timeline.stepwise(testingCapacity, 0);
+		return testingCapacityTimeline;
+	}
+
 	@StringSetter(CAPACITY)
 	void setTestingCapacity(String capacity) {
 
@@ -189,6 +209,7 @@ public class TestingConfigGroup extends ReflectiveConfigGroup {
 	 */
 	public void setTestingRatePerActivity(Map<String, Double> rates) {
 		this.ratePerActivity.clear();
+		this.ratePerActivityTimeline = null;
 		for (Map.Entry<String, Double> e : rates.entrySet()) {
 			ratePerActivity.put(e.getKey(), new TreeMap<>(Map.of(LocalDate.MIN, e.getValue())));
 		}
@@ -199,6 +220,7 @@ public class TestingConfigGroup extends ReflectiveConfigGroup {
 	 */
 	public void setTestingRatePerActivityAndDate(Map<String, Map<LocalDate, Double>> rates) {
 		this.ratePerActivity.clear();
+		this.ratePerActivityTimeline = null;
 		for (Map.Entry<String, Map<LocalDate, Double>> e : rates.entrySet()) {
 			ratePerActivity.put(e.getKey(), new TreeMap<>(e.getValue()));
 		}
@@ -209,6 +231,7 @@ public class TestingConfigGroup extends ReflectiveConfigGroup {
 
 		Map<String, String> rate = Splitter.on("|").withKeyValueSeparator(">").split(rates);
 		this.ratePerActivity.clear();
+		this.ratePerActivityTimeline = null;
 
 		for (Map.Entry<String, String> v : rate.entrySet()) {
 			Map<String, String> map = SPLITTER.split(v.getValue());
@@ -232,9 +255,15 @@ public class TestingConfigGroup extends ReflectiveConfigGroup {
 	 */
 	public Object2DoubleMap<String> getDailyTestingRateForActivities(LocalDate date) {
 
+		if (ratePerActivityTimeline == null) {
+			Map<String, Timeline> timelines = new HashMap<>();
+			ratePerActivity.forEach((k, v) -> timelines.put(k, Timeline.stepwise(v, 0.0)));
+			ratePerActivityTimeline = timelines;
+		}
+
 		Object2DoubleOpenHashMap<String> map = new Object2DoubleOpenHashMap<>();
-		for (Map.Entry<String, NavigableMap<LocalDate, Double>> e : ratePerActivity.entrySet()) {
-			map.put(e.getKey(), (double) EpisimUtils.findValidEntry(e.getValue(), 0.0, date));
+		for (Map.Entry<String, Timeline> e : ratePerActivityTimeline.entrySet()) {
+			map.put(e.getKey(), e.getValue().get(date));
 		}
 
 		return map;
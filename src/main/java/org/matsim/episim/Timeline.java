@@ -0,0 +1,167 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2020 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Config values keyed by date (or another integer key like the age), compiled into a dense array with one entry per day.
+ * Values are either piecewise constant, as in {@link EpisimUtils#findValidEntry(Map, Object, Comparable)},
+ * or linearly interpolated, as in {@link EpisimUtils#interpolateEntry(NavigableMap, LocalDate)}.
+ * <p>
+ * The array spans from the first to the last key, after the last key the value stays constant.
+ * Keys far in the past, like the often used 1970-01-01, are not compiled and only looked up in the source map.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class Timeline {
+
+	/**
+	 * Maximum number of compiled keys (days).
+	 */
+	static final int MAX_LENGTH = 3660;
+
+	private final NavigableMap<Long, Double> source = new TreeMap<>();
+	private final boolean interpolate;
+	private final double defaultValue;
+
+	/**
+	 * Key of the first compiled value.
+	 */
+	private final long first;
+	private final double[] values;
+
+	private Timeline(Map<Long, ? extends Number> map, boolean interpolate, double defaultValue) {
+		this.interpolate = interpolate;
+		this.defaultValue = defaultValue;
+
+		map.forEach((k, v) -> source.put(k, v.doubleValue()));
+
+		if (source.isEmpty()) {
+			first = 0;
+			values = new double[0];
+			return;
+		}
+
+		long last = source.lastKey();
+		first = Math.max(source.firstKey(), last - MAX_LENGTH + 1);
+		values = new double[(int) (last - first + 1)];
+
+		for (int i = 0; i < values.length; i++)
+			values[i] = evaluate(first + i);
+	}
+
+	/**
+	 * Compile a date-keyed map, where each entry is valid until the next one.
+	 *
+	 * @param defaultValue value before the first entry
+	 */
+	public static Timeline stepwise(Map<LocalDate, ? extends Number> map, double defaultValue) {
+		return new Timeline(byEpochDay(map), false, defaultValue);
+	}
+
+	/**
+	 * Compile a date-keyed map, where values between entries are interpolated.
+	 *
+	 * @param defaultValue value if the map is empty
+	 */
+	public static Timeline interpolated(Map<LocalDate, ? extends Number> map, double defaultValue) {
+		return new Timeline(byEpochDay(map), true, defaultValue);
+	}
+
+	/**
+	 * Compile an integer-keyed map, where each entry is valid until the next one.
+	 *
+	 * @param defaultValue value before the first entry
+	 */
+	public static Timeline stepwiseByKey(Map<Integer, ? extends Number> map, double defaultValue) {
+		Map<Long, Number> result = new TreeMap<>();
+		map.forEach((k, v) -> result.put((long) k, v));
+		return new Timeline(result, false, defaultValue);
+	}
+
+	private static Map<Long, Number> byEpochDay(Map<LocalDate, ? extends Number> map) {
+		Map<Long, Number> result = new TreeMap<>();
+		map.forEach((k, v) -> result.put(k.toEpochDay(), v));
+		return result;
+	}
+
+	/**
+	 * Value valid at {@code date}.
+	 */
+	public double get(LocalDate date) {
+		return get(date.toEpochDay());
+	}
+
+	/**
+	 * Value valid at {@code date}, as integer.
+	 */
+	public int getInt(LocalDate date) {
+		return (int) get(date.toEpochDay());
+	}
+
+	/**
+	 * Value valid for an integer key.
+	 */
+	public double get(long key) {
+
+		if (values.length == 0)
+			return defaultValue;
+
+		long i = key - first;
+		if (i >= values.length)
+			return values[values.length - 1];
+
+		if (i >= 0)
+			return values[(int) i];
+
+		return evaluate(key);
+	}
+
+	/**
+	 * Computes the value from the source map.
+	 */
+	private double evaluate(long key) {
+
+		Map.Entry<Long, Double> floor = source.floorEntry(key);
+
+		if (!interpolate)
+			return floor != null ? floor.getValue() : defaultValue;
+
+		if (floor == null)
+			return source.firstEntry().getValue();
+
+		if (floor.getKey() == key)
+			return floor.getValue();
+
+		Map.Entry<Long, Double> ceil = source.ceilingEntry(key);
+
+		// there is no higher entry to interpolate
+		if (ceil == null)
+			return floor.getValue();
+
+		double between = ceil.getKey() - floor.getKey();
+		double diff = key - floor.getKey();
+		return floor.getValue() + diff * (ceil.getValue() - floor.getValue()) / between;
+	}
+}
@@ -47,6 +47,13 @@ public class TracingConfigGroup extends ReflectiveConfigGroup {
 	 */
 	private final Map<LocalDate, Integer> tracingDelay = new TreeMap<>();
 
+	/**
+	 * Compiled timelines of the maps above, null until first requested.
+	 */
+	private Timeline tracingCapacityTimeline;
+	private Timeline tracingProbabilityTimeline;
+	private Timeline tracingDelayTimeline;
+
 	/**
 	 * Day after which tracing starts and puts persons into quarantine.
 	 */
@@ -131,6 +138,15 @@ public class TracingConfigGroup extends ReflectiveConfigGroup {
 		return tracingDelay;
 	}
 
+	/**
+	 * Tracing delay compiled for daily lookup, see {@link Timeline}.
+	 */
+	public Timeline getTracingDelayTimeline() {
+		if (tracingDelayTimeline == null)
+			tracingDelayTimeline = Timeline.stepwise(tracingDelay, 0);
+		return tracingDelayTimeline;
+	}
+
 	@StringSetter(TRACING_DELAY)
 	void setTracingDelay(String delay) {
 		Map<String, String> map = SPLITTER.split(delay);
@@ -157,6 +173,7 @@ public class TracingConfigGroup extends ReflectiveConfigGroup {
 	public void setTracingDelay_days(Map<LocalDate, Integer> tracingDelay) {
 		this.tracingDelay.clear();
 		this.tracingDelay.putAll(tracingDelay);
+		this.tracingDelayTimeline = null;
 	}
 
 	@StringGetter(TRACING_PROBABILITY)
@@ -168,6 +185,15 @@ public class TracingConfigGroup extends ReflectiveConfigGroup {
 		return tracingProbability;
 	}
 
+	/**
+	 * Tracing probability compiled for daily lookup, see {@link Timeline}.
+	 */
+	public Timeline getTracingProbabilityTimeline() {
+		if (tracingProbabilityTimeline == null)
+			tracingProbabilityTimeline = Timeline.stepwise(tracingProbability, 1.0);
+		return tracingProbabilityTimeline;
+	}
+
 	@StringSetter(TRACING_PROBABILITY)
 	void setTracingProbability(String capacity) {
 		Map<String, String> map = SPLITTER.split(capacity);
@@ -179,6 +205,7 @@ public class TracingConfigGroup extends ReflectiveConfigGroup {
 	public void setTracingProbability(Map<LocalDate, Double> tracingProbability) {
 		this.tracingProbability.clear();
 		this.tracingProbability.putAll(tracingProbability);
+		this.tracingProbabilityTimeline = null;
 	}
 
 	/**
@@ -206,12 +233,22 @@ public class TracingConfigGroup extends ReflectiveConfigGroup {
 	public void setTracingCapacity_pers_per_day(Map<LocalDate, Integer> capacity) {
 		tracingCapacity.clear();
 		tracingCapacity.putAll(capacity);
+		tracingCapacityTimeline = null;
 	}
 
 	public Map<LocalDate, Integer> getTracingCapacity() {
 		return tracingCapacity;
 	}
 
+	/**
+	 * Tracing capacity, unlimited if not set, compiled for daily lookup, see {@link Timeline}.
+	 */
+	public Timeline getTracingCapacityTimeline() {
+		if (tracingCapacityTimeline == null)
+			tracingCapacityTimeline = Timeline.stepwise(tracingCapacity, Integer.MAX_VALUE);
+		return tracingCapacityTimeline;
+	}
+
 	@StringSetter(CAPACITY)
 	void setTracingCapacity(String capacity) {
 
@@ -58,6 +58,13 @@ public class VaccinationConfigGroup extends ReflectiveConfigGroup {
 	 */
 	private final NavigableMap<Integer, Double> compliance = new TreeMap<>(Map.of(-1, 1.0));
 
+	/**
+	 * Compiled timelines of the maps above, null until first requested.
+	 */
+	private Timeline vaccinationCapacityTimeline;
+	private Timeline reVaccinationCapacityTimeline;
+	private Timeline complianceTimeline;
+
 
 	/**
 	 * Default constructor.
@@ -95,6 +102,7 @@ public class VaccinationConfigGroup extends ReflectiveConfigGroup {
 	public void setCompliancePerAge(Map<Integer, Double> compliance) {
 		this.compliance.clear();
 		this.compliance.putAll(compliance);
+		this.complianceTimeline = null;
 	}
 
 	/**
@@ -104,6 +112,15 @@ public class VaccinationConfigGroup extends ReflectiveConfigGroup {
 		return compliance;
 	}
 
+	/**
+	 * Vaccination compliance compiled for lookup by age, see {@link Timeline#get(long)}.
+	 */
+	public Timeline getCompliancePerAgeTimeline() {
+		if (complianceTimeline == null)
+			complianceTimeline = Timeline.stepwiseByKey(compliance, 1.0);
+		return complianceTimeline;
+	}
+
 	@StringSetter(COMPLIANCE)
 	void setCompliance(String compliance) {
 		Map<String, String> map = SPLITTER.split(compliance);
@@ -127,12 +144,22 @@ public class VaccinationConfigGroup extends ReflectiveConfigGroup {
 	public void setVaccinationCapacity_pers_per_day(Map<LocalDate, Integer> capacity) {
 		vaccinationCapacity.clear();
 		vaccinationCapacity.putAll(capacity);
+		vaccinationCapacityTimeline = null;
 	}
 
 	public NavigableMap<LocalDate, Integer> getVaccinationCapacity() {
 		return vaccinationCapacity;
 	}
 
+	/**
+	 * Vaccination capacity compiled for daily lookup, see {@link Timeline}.
+	 */
+	public Timeline getVaccinationCapacityTimeline() {
+		if (vaccinationCapacityTimeline == null)
+			vaccinationCapacityTimeline = Timeline.stepwise(vaccinationCapacity, 0);
+		return vaccinationCapacityTimeline;
+	}
+
 	@StringSetter(CAPACITY)
 	void setVaccinationCapacity(String capacity) {
 
@@ -153,12 +180,22 @@ public class VaccinationConfigGroup extends ReflectiveConfigGroup {
 	public void setReVaccinationCapacity_pers_per_day(Map<LocalDate, Integer> capacity) {
 		reVaccinationCapacity.clear();
 		reVaccinationCapacity.putAll(capacity);
+		reVaccinationCapacityTimeline = null;
 	}
 
 	public NavigableMap<LocalDate, Integer> getReVaccinationCapacity() {
 		return reVaccinationCapacity;
 	}
 
+	/**
+	 * Re-vaccination capacity compiled for daily lookup, see {@link Timeline}.
+	 */
+	public Timeline getReVaccinationCapacityTimeline() {
+		if (reVaccinationCapacityTimeline == null)
+			reVaccinationCapacityTimeline = Timeline.stepwise(reVaccinationCapacity, 0);
+		return reVaccinationCapacityTimeline;
+	}
+
 	@StringSetter(RECAPACITY)
 	void setReVaccinationCapacity(String capacity) {
 
@@ -300,8 +300,7 @@ public abstract class AbstractContactModel implements ContactModel {
 		this.iteration = iteration;
 		this.restrictions = restrictions;
 		this.infectionModel.setIteration(iteration);
-		this.curfewCompliance = EpisimUtils.findValidEntry(episimConfig.getCurfewCompliance(), 1.0,
-				episimConfig.getStartDate().plusDays(iteration - 1));
+		this.curfewCompliance = episimConfig.getCurfewComplianceTimeline().get(episimConfig.getStartDate().plusDays(iteration - 1));
 	}
 
 	/**
@@ -362,5 +361,16 @@ public abstract class AbstractContactModel implements ContactModel {
 	public void notifyEnterFacility(EpisimPerson personEnteringFacility, EpisimFacility facility, double now) {
 	}
 
+	@Override
+	public boolean supportsFastForward() {
+		return true;
+	}
+
+	@Override
+	public boolean supportsInitCache() {
+		// no state is kept between notifications
+		return true;
+	}
+
 
 }
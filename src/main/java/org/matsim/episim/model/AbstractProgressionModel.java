@@ -1,6 +1,7 @@
 package org.matsim.episim.model;
 
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Person;
@@ -28,12 +29,16 @@ abstract class AbstractProgressionModel implements ProgressionModel, Externaliza
 	/**
 	 * Stores the next state and after which day. (int & int) = 64bit
 	 */
-	private final Object2LongMap<Id<Person>> nextStateAndDay = new Object2LongOpenHashMap<>();
+	private final Object2LongMap<Id<Person>> nextStateAndDay;
 
 	@Inject
 	AbstractProgressionModel(SplittableRandom rnd, EpisimConfigGroup episimConfig) {
 		this.rnd = rnd;
 		this.episimConfig = episimConfig;
+
+		// persons of different chunks may insert their transitions concurrently
+		this.nextStateAndDay = episimConfig.getStateUpdateChunks() > 1 ?
+				Object2LongMaps.synchronize(new Object2LongOpenHashMap<>()) : new Object2LongOpenHashMap<>();
 	}
 
 	/**
@@ -45,6 +50,16 @@ abstract class AbstractProgressionModel implements ProgressionModel, Externaliza
 
 	@Override
 	public void updateState(EpisimPerson person, int day) {
+		updateState(person, day, rnd);
+	}
+
+	@Override
+	public boolean supportsRandomStreams() {
+		return true;
+	}
+
+	@Override
+	public void updateState(EpisimPerson person, int day, SplittableRandom rnd) {
 
 		EpisimPerson.DiseaseStatus status = person.getDiseaseStatus();
 
@@ -79,13 +94,13 @@ abstract class AbstractProgressionModel implements ProgressionModel, Externaliza
 				onTransition(person, now, day, status, next);
 
 				if (next != EpisimPerson.DiseaseStatus.recovered) {
-					if (updateNext(person, id, next))
-						updateState(person, day);
+					if (updateNext(person, id, next, rnd))
+						updateState(person, day, rnd);
 				}
 			}
 		} else {
-			if (updateNext(person, id, status))
-				updateState(person, day);
+			if (updateNext(person, id, status, rnd))
+				updateState(person, day, rnd);
 		}
 	}
 
@@ -94,9 +109,9 @@ abstract class AbstractProgressionModel implements ProgressionModel, Externaliza
 	 *
 	 * @return true when there should be an immediate update again
 	 */
-	private boolean updateNext(EpisimPerson person, Id<Person> id, EpisimPerson.DiseaseStatus from) {
-		EpisimPerson.DiseaseStatus next = decideNextState(person);
-		int nextTransitionDay = decideTransitionDay(person, from, next);
+	private boolean updateNext(EpisimPerson person, Id<Person> id, EpisimPerson.DiseaseStatus from, SplittableRandom rnd) {
+		EpisimPerson.DiseaseStatus next = decideNextState(person, rnd);
+		int nextTransitionDay = decideTransitionDay(person, from, next, rnd);
 
 		nextStateAndDay.put(id, compoundLong(next.ordinal(), nextTransitionDay));
 
@@ -106,13 +121,18 @@ abstract class AbstractProgressionModel implements ProgressionModel, Externaliza
 
 	/**
 	 * Choose the next state a person will attain.
+	 *
+	 * @param rnd random stream to use for this person
 	 */
-	protected abstract EpisimPerson.DiseaseStatus decideNextState(EpisimPerson person);
+	protected abstract EpisimPerson.DiseaseStatus decideNextState(EpisimPerson person, SplittableRandom rnd);
 
 	/**
 	 * Chose how long a person stays in {@code from} until the disease changes to {@code to}.
+	 *
+	 * @param rnd random stream to use for this person
 	 */
-	protected abstract int decideTransitionDay(EpisimPerson person, EpisimPerson.DiseaseStatus from, EpisimPerson.DiseaseStatus to);
+	protected abstract int decideTransitionDay(EpisimPerson person, EpisimPerson.DiseaseStatus from, EpisimPerson.DiseaseStatus to,
+	                                           SplittableRandom rnd);
 
 	/**
 	 * Arbitrary function that can be overwritten to perform actions on state transitions.
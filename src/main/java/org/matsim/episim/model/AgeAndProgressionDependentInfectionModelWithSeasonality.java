@@ -33,6 +33,8 @@ public final class AgeAndProgressionDependentInfectionModelWithSeasonality imple
 	 */
 	private final double scale;
 
+	private final InfectionKernel kernel;
+
 	private double outdoorFactor;
 	private int iteration;
 
@@ -46,6 +48,7 @@ public final class AgeAndProgressionDependentInfectionModelWithSeasonality imple
 		this.virusStrainConfig = ConfigUtils.addOrGetModule(config, VirusStrainConfigGroup.class);
 		this.reporting = reporting;
 		this.rnd = rnd;
+		this.kernel = new InfectionKernel(episimConfig, vaccinationConfig, virusStrainConfig);
 
 		// pre-compute interpolated age dependent entries
 		for (int i = 0; i < susceptibility.length; i++) {
@@ -61,6 +64,7 @@ public final class AgeAndProgressionDependentInfectionModelWithSeasonality imple
 	public void setIteration(int iteration) {
 		this.outdoorFactor = InfectionModelWithSeasonality.interpolateOutdoorFraction(episimConfig, iteration);
 		this.iteration = iteration;
+		this.kernel.setIteration(iteration);
 		reporting.reportOutdoorFraction(this.outdoorFactor, iteration);
 
 	}
@@ -70,25 +74,24 @@ public final class AgeAndProgressionDependentInfectionModelWithSeasonality imple
 										   EpisimConfigGroup.InfectionParams act1, EpisimConfigGroup.InfectionParams act2,
 										   double contactIntensity, double jointTimeInContainer) {
 
-		//noinspection ConstantConditions 		// ci corr can not be null, because sim is initialized with non null value
-		double ciCorrection = Math.min(restrictions.get(act1.getContainerName()).getCiCorrection(), restrictions.get(act2.getContainerName()).getCiCorrection());
+		// ci corr can not be null, because sim is initialized with non null value
+		int i = kernel.index(restrictions, act1);
+		int j = kernel.index(restrictions, act2);
 
 		double susceptibility = this.susceptibility[target.getAge()];
 		double infectivity = this.infectivity[infector.getAge()];
 
 		// apply reduced susceptibility of vaccinated persons
-		VirusStrainConfigGroup.StrainParams strain = virusStrainConfig.getParams(infector.getVirusStrain());
-		if (target.getVaccinationStatus() == EpisimPerson.VaccinationStatus.yes) {
-			susceptibility *= DefaultInfectionModel.getVaccinationEffectiveness(strain, target, vaccinationConfig, iteration);
-		}
+		VirusStrain strain = infector.getVirusStrain();
+		susceptibility *= kernel.vaccination(target, strain);
 
 		double indoorOutdoorFactor = InfectionModelWithSeasonality.getIndoorOutdoorFactor(outdoorFactor, rnd, act1, act2);
 
-		return 1 - Math.exp(-episimConfig.getCalibrationParameter() * susceptibility * infectivity * contactIntensity * jointTimeInContainer * ciCorrection
+		return kernel.probability(kernel.factor(i, j) * susceptibility * infectivity * contactIntensity * jointTimeInContainer
 				* getInfectivity(infector)
-				* strain.getInfectiousness()
-				* maskModel.getWornMask(infector, act2, restrictions.get(act2.getContainerName())).shedding
-				* maskModel.getWornMask(target, act1, restrictions.get(act1.getContainerName())).intake
+				* kernel.infectiousness(strain)
+				* maskModel.getWornMask(infector, act2, kernel.restriction(j)).shedding
+				* maskModel.getWornMask(target, act1, kernel.restriction(i)).intake
 				* indoorOutdoorFactor
 		);
 	}
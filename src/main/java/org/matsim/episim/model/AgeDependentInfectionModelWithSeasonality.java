@@ -24,6 +24,8 @@ public final class AgeDependentInfectionModelWithSeasonality implements Infectio
 	private final double[] susceptibility = new double[128];
 	private final double[] infectivity = new double[susceptibility.length];
 
+	private final InfectionKernel kernel;
+
 	private double outdoorFactor;
 	private int iteration;
 
@@ -35,6 +37,7 @@ public final class AgeDependentInfectionModelWithSeasonality implements Infectio
 		this.virusStrainConfig = ConfigUtils.addOrGetModule(config, VirusStrainConfigGroup.class);
 		this.reporting = reporting;
 		this.rnd = rnd;
+		this.kernel = new InfectionKernel(episimConfig, vaccinationConfig, virusStrainConfig);
 
 		// pre-compute interpolated age dependent entries
 		for (int i = 0; i < susceptibility.length; i++) {
@@ -47,6 +50,7 @@ public final class AgeDependentInfectionModelWithSeasonality implements Infectio
 	public void setIteration(int iteration) {
 		this.outdoorFactor = InfectionModelWithSeasonality.interpolateOutdoorFraction(episimConfig, iteration);
 		this.iteration = iteration;
+		this.kernel.setIteration(iteration);
 		reporting.reportOutdoorFraction(this.outdoorFactor, iteration);
 
 	}
@@ -56,24 +60,23 @@ public final class AgeDependentInfectionModelWithSeasonality implements Infectio
 										   EpisimConfigGroup.InfectionParams act1, EpisimConfigGroup.InfectionParams act2,
 										   double contactIntensity, double jointTimeInContainer) {
 
-		//noinspection ConstantConditions 		// ci corr can not be null, because sim is initialized with non null value
-		double ciCorrection = Math.min(restrictions.get(act1.getContainerName()).getCiCorrection(), restrictions.get(act2.getContainerName()).getCiCorrection());
+		// ci corr can not be null, because sim is initialized with non null value
+		int i = kernel.index(restrictions, act1);
+		int j = kernel.index(restrictions, act2);
 
 		double susceptibility = this.susceptibility[target.getAge()];
 		double infectivity = this.infectivity[infector.getAge()];
 
 		// apply reduced susceptibility of vaccinated persons
-		VirusStrainConfigGroup.StrainParams params = virusStrainConfig.getParams(infector.getVirusStrain());
-		if (target.getVaccinationStatus() == EpisimPerson.VaccinationStatus.yes) {
-			susceptibility *= DefaultInfectionModel.getVaccinationEffectiveness(params, target, vaccinationConfig, iteration);
-		}
+		VirusStrain strain = infector.getVirusStrain();
+		susceptibility *= kernel.vaccination(target, strain);
 
 		double indoorOutdoorFactor = InfectionModelWithSeasonality.getIndoorOutdoorFactor(outdoorFactor, rnd, act1, act2);
 
-		return 1 - Math.exp(-episimConfig.getCalibrationParameter() * susceptibility * infectivity * contactIntensity * jointTimeInContainer * ciCorrection
-				* params.getInfectiousness()
-				* maskModel.getWornMask(infector, act2, restrictions.get(act2.getContainerName())).shedding
-				* maskModel.getWornMask(target, act1, restrictions.get(act1.getContainerName())).intake
+		return kernel.probability(kernel.factor(i, j) * susceptibility * infectivity * contactIntensity * jointTimeInContainer
+				* kernel.infectiousness(strain)
+				* maskModel.getWornMask(infector, act2, kernel.restriction(j)).shedding
+				* maskModel.getWornMask(target, act1, kernel.restriction(i)).intake
 				* indoorOutdoorFactor
 		);
 	}
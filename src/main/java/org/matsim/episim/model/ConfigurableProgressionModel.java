@@ -79,6 +79,7 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 	private final TracingConfigGroup tracingConfig;
 	private final VirusStrainConfigGroup strainConfig;
 	private final VaccinationConfigGroup vaccinationConfig;
+	private final HouseholdRegistry households;
 
 	/**
 	 * Counts how many infections occurred at each location.
@@ -115,13 +116,19 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 	 */
 	private long prevShowingSymptoms;
 
+	/**
+	 * Tracing actions that are deferred until all state updates are done. Only used for parallel state updates, otherwise null.
+	 */
+	private final List<Deferred> deferred;
+
 	@Inject
 	public ConfigurableProgressionModel(SplittableRandom rnd, EpisimConfigGroup episimConfig, TracingConfigGroup tracingConfig,
-	                                    VirusStrainConfigGroup strainConfig, VaccinationConfigGroup vaccinationConfig) {
+	                                    VirusStrainConfigGroup strainConfig, VaccinationConfigGroup vaccinationConfig, HouseholdRegistry households) {
 		super(rnd, episimConfig);
 		this.tracingConfig = tracingConfig;
 		this.strainConfig = strainConfig;
 		this.vaccinationConfig = vaccinationConfig;
+		this.households = households;
 
 		Config config = episimConfig.getProgressionConfig();
 
@@ -133,6 +140,11 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 		Transition.Builder t = Transition.parse(config);
 		log.info("Using disease progression config: {}", t);
 		tMatrix = t.asArray();
+
+		// tracing affects other persons and needs to be deferred when these are updated in parallel
+		// with counter-based random numbers it is always deferred, so that results do not depend on the number of chunks
+		deferred = episimConfig.getStateUpdateChunks() > 1 || episimConfig.isCounterBasedRandom()
+				? Collections.synchronizedList(new ArrayList<>()) : null;
 	}
 
 	@Override
@@ -141,19 +153,24 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 		LocalDate date = episimConfig.getStartDate().plusDays(day - 1);
 
 		// Default capacity if none is set
-		tracingCapacity = EpisimUtils.findValidEntry(tracingConfig.getTracingCapacity(), Integer.MAX_VALUE, date);
+		tracingCapacity = tracingConfig.getTracingCapacityTimeline().getInt(date);
 
 		// scale by sample size
 		if (tracingCapacity != Integer.MAX_VALUE)
 			tracingCapacity *= episimConfig.getSampleSize();
 
-		tracingProb = EpisimUtils.findValidEntry(tracingConfig.getTracingProbability(), 1.0, date);
-		tracingDelay = EpisimUtils.findValidEntry(tracingConfig.getTracingDelay(), 0, date);
+		tracingProb = tracingConfig.getTracingProbabilityTimeline().get(date);
+		tracingDelay = tracingConfig.getTracingDelayTimeline().getInt(date);
 	}
 
 	@Override
-	public final void updateState(EpisimPerson person, int day) {
-		super.updateState(person, day);
+	public final boolean supportsParallelUpdates() {
+		return deferred != null;
+	}
+
+	@Override
+	public final void updateState(EpisimPerson person, int day, SplittableRandom rnd) {
+		super.updateState(person, day, rnd);
 
 		// A healthy quarantined person is dismissed from quarantine after some time
 		if (releasePerson(person) && person.daysSinceQuarantine(day) > tracingConfig.getQuarantineDuration()) {
@@ -174,7 +191,8 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 		if (person.hadDiseaseStatus(DiseaseStatus.showingSymptoms) && tracingDelay > 0 &&
 				person.daysSince(DiseaseStatus.showingSymptoms, day) == tracingDelay) {
 
-			performTracing(person, now - tracingDelay * DAY, day);
+			double tracingTime = now - tracingDelay * DAY;
+			runOrDefer(person, () -> performTracing(person, tracingTime, day));
 		}
 
 		// clear tracing if not relevant anymore
@@ -211,7 +229,7 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 			person.setQuarantineStatus(EpisimPerson.QuarantineStatus.full, day);
 			// Perform tracing immediately if there is no delay, otherwise needs to be done when person shows symptoms
 			if (tracingDelay == 0) {
-				performTracing(person, now, day);
+				runOrDefer(person, () -> performTracing(person, now, day));
 			}
 
 			// count infections at locations
@@ -222,13 +240,35 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 					String container = person.getInfectionContainer().toString();
 					if (!container.startsWith("home") && !container.startsWith("tr") &&
 							!person.getInfectionType().contains("shop") && !person.getInfectionType().contains("pt")) {
-						locations.mergeInt(person.getInfectionContainer(), 1, Integer::sum);
+						runOrDefer(person, () -> locations.mergeInt(person.getInfectionContainer(), 1, Integer::sum));
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Run an action on shared state directly, or defer it to {@link #afterStateUpdates(Map, int)} when persons are updated in parallel.
+	 */
+	private void runOrDefer(EpisimPerson person, Runnable action) {
+		if (deferred != null)
+			deferred.add(new Deferred(person, action));
+		else
+			action.run();
+	}
+
+	@Override
+	public final void afterStateUpdates(Map<Id<Person>, EpisimPerson> persons, int day) {
+
+		if (deferred == null || deferred.isEmpty())
+			return;
+
+		// actions are executed in the same order as persons would have been updated sequentially
+		deferred.sort(Comparator.comparingInt(d -> d.person.getPersonId().index()));
+		deferred.forEach(d -> d.action.run());
+		deferred.clear();
+	}
+
 	@Override
 	public final void beforeStateUpdates(Map<Id<Person>, EpisimPerson> persons, int day, EpisimReporting.InfectionReport report) {
 
@@ -293,7 +333,7 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 			prevShowingSymptoms = report.nShowingSymptomsCumulative;
 
 			LocalDate date = episimConfig.getStartDate().plusDays(day - 1);
-			Double prob = EpisimUtils.findValidEntry(tracingConfig.getTracingProbability(), 1.0, date);
+			double prob = tracingConfig.getTracingProbabilityTimeline().get(date);
 
 			// scale probability with config value
 			double p = prob * newCases / report.nTotal();
@@ -308,7 +348,7 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 	}
 
 	@Override
-	protected final DiseaseStatus decideNextState(EpisimPerson person) {
+	protected final DiseaseStatus decideNextState(EpisimPerson person, SplittableRandom rnd) {
 
 		switch (person.getDiseaseStatus()) {
 			case infectedButNotContagious:
@@ -350,7 +390,7 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 	}
 
 	@Override
-	protected final int decideTransitionDay(EpisimPerson person, DiseaseStatus from, DiseaseStatus to) {
+	protected final int decideTransitionDay(EpisimPerson person, DiseaseStatus from, DiseaseStatus to, SplittableRandom rnd) {
 		Transition t = tMatrix[from.ordinal() * DiseaseStatus.values().length + to.ordinal()];
 		if (t == null) throw new IllegalStateException(String.format("No transition from %s to %s defined", from, to));
 
@@ -399,13 +439,30 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 		//	return;
 		// traced.add(person.getPersonId());
 
-		String homeId = null;
-
 		// quarantine household flag controls direct household and 2nd order household
-		if (tracingConfig.getQuarantineHousehold())
-			homeId = (String) person.getAttributes().getAttribute("homeId");
+		boolean household = tracingConfig.getQuarantineHousehold() && person.getHouseholdIndex() != -1;
+
+		// Persons of the same household are always traced successfully
+		if (household) {
+			for (EpisimPerson member : households.getMembers(person)) {
+				if (member != person) {
+					quarantinePerson(member, day);
+					log.debug("sending person={} into quarantine because of household member={}", member.getPersonId(), person.getPersonId());
+				}
+			}
+		}
+
+		List<EpisimPerson> contacts = person.getTraceableContactPersons(now - tracingConfig.getTracingDayDistance() * DAY);
+
+		// don't iterate contacts when tracing is practically off, only the capacity is used up
+		if (tracingProb == 0) {
+			if (tracingConfig.getCapacityType() == TracingConfigGroup.CapacityType.PER_CONTACT_PERSON)
+				tracingCapacity = Math.max(0, tracingCapacity - contacts.size());
+
+			contacts = List.of();
+		}
 
-		for (EpisimPerson pw : person.getTraceableContactPersons(now - tracingConfig.getTracingDayDistance() * DAY)) {
+		for (EpisimPerson pw : contacts) {
 
 			if (tracingConfig.getCapacityType() == TracingConfigGroup.CapacityType.PER_CONTACT_PERSON) {
 				tracingCapacity--;
@@ -413,13 +470,11 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 					break;
 			}
 
-			// don't draw random number when tracing is practically off
-			if (tracingProb == 0 && homeId == null)
+			// household members are already in quarantine
+			if (household && person.isSameHousehold(pw))
 				continue;
 
-			// Persons of the same household are always traced successfully
-			if ((homeId != null && homeId.equals(pw.getAttributes().getAttribute("homeId")))
-					|| tracingProb == 1d || rnd.nextDouble() < tracingProb) {
+			if (tracingProb == 1d || rnd.nextDouble() < tracingProb) {
 				quarantinePerson(pw, day);
 				log.debug("sending person={} into quarantine because of contact to person={}", pw.getPersonId(), person.getPersonId());
 			}
@@ -491,4 +546,18 @@ public class ConfigurableProgressionModel extends AbstractProgressionModel {
 			writeChars(out, personId.toString());
 		}
 	}
+
+	/**
+	 * Action of a person that has been deferred.
+	 */
+	private static final class Deferred {
+
+		private final EpisimPerson person;
+		private final Runnable action;
+
+		private Deferred(EpisimPerson person, Runnable action) {
+			this.person = person;
+			this.action = action;
+		}
+	}
 }
@@ -48,4 +48,20 @@ public interface ContactModel {
 	 */
 	void setRestrictionsForIteration(int iteration, Map<String, Restriction> restrictions);
 
+	/**
+	 * Whether the model keeps no state between the enter and leave notifications of a person.
+	 * Only then the model may be skipped entirely on days or in containers where no infection can happen.
+	 */
+	default boolean supportsFastForward() {
+		return false;
+	}
+
+	/**
+	 * Whether the model builds up no state while the initial state of the {@link InfectionEventHandler} is computed.
+	 * Only then the initial state can be restored from a cache, see {@link org.matsim.episim.EpisimConfigGroup#setInitCache(String)}.
+	 */
+	default boolean supportsInitCache() {
+		return false;
+	}
+
 }
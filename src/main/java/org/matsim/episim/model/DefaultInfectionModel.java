@@ -23,7 +23,7 @@ public final class DefaultInfectionModel implements InfectionModel {
 	private final EpisimConfigGroup episimConfig;
 	private final VaccinationConfigGroup vaccinationConfig;
 	private final VirusStrainConfigGroup virusStrainConfig;
-	private int iteration;
+	private final InfectionKernel kernel;
 
 	@Inject
 	public DefaultInfectionModel(FaceMaskModel faceMaskModel, Config config) {
@@ -31,12 +31,12 @@ public final class DefaultInfectionModel implements InfectionModel {
 		this.episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
 		this.vaccinationConfig = ConfigUtils.addOrGetModule(config, VaccinationConfigGroup.class);
 		this.virusStrainConfig = ConfigUtils.addOrGetModule(config, VirusStrainConfigGroup.class);
-
+		this.kernel = new InfectionKernel(episimConfig, vaccinationConfig, virusStrainConfig);
 	}
 
 	@Override
 	public void setIteration(int iteration) {
-		this.iteration = iteration;
+		kernel.setIteration(iteration);
 	}
 
 	@Override
@@ -45,20 +45,19 @@ public final class DefaultInfectionModel implements InfectionModel {
 	                                       double contactIntensity, double jointTimeInContainer) {
 
 		// ci corr can not be null, because sim is initialized with non null value
-		double ciCorrection = Math.min(restrictions.get(act1.getContainerName()).getCiCorrection(), restrictions.get(act2.getContainerName()).getCiCorrection());
+		int i = kernel.index(restrictions, act1);
+		int j = kernel.index(restrictions, act2);
 
 		// note that for 1pct runs, calibParam is of the order of one, which means that for typical times of 100sec or more,
 		// exp( - 1 * 1 * 100 ) \approx 0, and thus the infection proba becomes 1.  Which also means that changes in contactIntensity has
 		// no effect.  kai, mar'20
-		VirusStrainConfigGroup.StrainParams strain = virusStrainConfig.getParams(infector.getVirusStrain());
-		double susceptibility = target.getVaccinationStatus() == EpisimPerson.VaccinationStatus.no ? 1
-				: getVaccinationEffectiveness(strain, target, vaccinationConfig, iteration);
-
-		return 1 - Math.exp(-episimConfig.getCalibrationParameter() * contactIntensity * jointTimeInContainer * ciCorrection
-				* susceptibility
-				* strain.getInfectiousness()
-				* maskModel.getWornMask(infector, act2, restrictions.get(act2.getContainerName())).shedding
-				* maskModel.getWornMask(target, act1, restrictions.get(act1.getContainerName())).intake
+		VirusStrain strain = infector.getVirusStrain();
+
+		return kernel.probability(kernel.factor(i, j) * contactIntensity * jointTimeInContainer
+				* kernel.vaccination(target, strain)
+				* kernel.infectiousness(strain)
+				* maskModel.getWornMask(infector, act2, kernel.restriction(j)).shedding
+				* maskModel.getWornMask(target, act1, kernel.restriction(i)).intake
 		);
 	}
 
@@ -66,14 +65,23 @@ public final class DefaultInfectionModel implements InfectionModel {
 	 * Calculate the current effectiveness of vaccination.
 	 */
 	static double getVaccinationEffectiveness(VirusStrainConfigGroup.StrainParams virusStrain, EpisimPerson target, VaccinationConfigGroup config, int iteration) {
-		double daysVaccinated = target.daysSince(EpisimPerson.VaccinationStatus.yes, iteration);
+		return getVaccinationEffectiveness(virusStrain, target.getReVaccinationStatus() == EpisimPerson.VaccinationStatus.yes,
+				target.daysSince(EpisimPerson.VaccinationStatus.yes, iteration), config);
+	}
+
+	/**
+	 * Calculate the effectiveness of vaccination after a number of days.
+	 *
+	 * @param reVaccinated whether the person received the new vaccine
+	 */
+	static double getVaccinationEffectiveness(VirusStrainConfigGroup.StrainParams virusStrain, boolean reVaccinated, double daysVaccinated, VaccinationConfigGroup config) {
 
 		double vaccineEffectiveness;
 
 		// minimum effectiveness, independent of time
 		double min;
 		// use re vaccine effectiveness if person received the new vaccine
-		if (target.getReVaccinationStatus() == EpisimPerson.VaccinationStatus.yes) {
+		if (reVaccinated) {
 			vaccineEffectiveness = virusStrain.getReVaccineEffectiveness();
 			// effectiveness of second vaccine is never below first
 			min = virusStrain.getVaccineEffectiveness();
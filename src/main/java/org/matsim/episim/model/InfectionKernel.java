@@ -0,0 +1,254 @@
+package org.matsim.episim.model;
+
+import org.matsim.episim.EpisimConfigGroup;
+import org.matsim.episim.EpisimPerson;
+import org.matsim.episim.VaccinationConfigGroup;
+import org.matsim.episim.VirusStrainConfigGroup;
+import org.matsim.episim.policy.Restriction;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Day-constant factors of the infection probability, compiled into dense tables once per day.
+ * Factors are indexed by the pair of container params, the virus strain and the vaccination state of the target.
+ * <p>
+ * The infection probability {@code 1 - exp(-x)} can optionally be approximated by linear interpolation in a table,
+ * which has an absolute error below {@link #APPROXIMATION_ERROR}.
+ */
+final class InfectionKernel {
+
+	/**
+	 * Upper bound of the absolute error of the approximated infection probability.
+	 */
+	static final double APPROXIMATION_ERROR = 2e-6;
+
+	/**
+	 * Resolution of the table, the interpolation error is bounded by step^2 / 8.
+	 */
+	private static final int STEPS_PER_UNIT = 256;
+
+	/**
+	 * Exponents beyond this value are treated as certain infection, the error is exp(-32).
+	 */
+	private static final int MAX_EXPONENT = 32;
+
+	private static final double[] PROBABILITY = new double[MAX_EXPONENT * STEPS_PER_UNIT + 2];
+
+	static {
+		for (int i = 0; i < PROBABILITY.length; i++)
+			PROBABILITY[i] = -Math.expm1(-(double) i / STEPS_PER_UNIT);
+	}
+
+	private final EpisimConfigGroup episimConfig;
+	private final VaccinationConfigGroup vaccinationConfig;
+	private final VirusStrainConfigGroup virusStrainConfig;
+
+	/**
+	 * All known infection params, stored at their {@link EpisimConfigGroup.InfectionParams#getIndex()} if possible.
+	 * Slots of params that have been replaced in the config are null.
+	 */
+	private EpisimConfigGroup.InfectionParams[] params = new EpisimConfigGroup.InfectionParams[0];
+
+	private final VirusStrain[] strains = VirusStrain.values();
+
+	/**
+	 * Infectiousness per strain, NaN if the strain is not configured.
+	 */
+	private final double[] infectiousness = new double[strains.length];
+
+	/**
+	 * Susceptibility of vaccinated persons per strain and vaccination bucket.
+	 * Buckets 0-2 are for persons with one vaccination, 3-5 for re-vaccinated persons.
+	 */
+	private final double[][] vaccination = new double[strains.length][6];
+
+	private int iteration;
+	private Map<String, Restriction> compiledFor;
+
+	/**
+	 * Restrictions in place for each params.
+	 */
+	private Restriction[] restriction = new Restriction[0];
+
+	/**
+	 * Calibration parameter times ci correction for each pair of params.
+	 */
+	private double[] factor = new double[0];
+
+	InfectionKernel(EpisimConfigGroup episimConfig, VaccinationConfigGroup vaccinationConfig, VirusStrainConfigGroup virusStrainConfig) {
+		this.episimConfig = episimConfig;
+		this.vaccinationConfig = vaccinationConfig;
+		this.virusStrainConfig = virusStrainConfig;
+	}
+
+	/**
+	 * Set the iteration, all tables will be recompiled on first use.
+	 */
+	void setIteration(int iteration) {
+		this.iteration = iteration;
+		this.compiledFor = null;
+	}
+
+	/**
+	 * Compile all tables, if they have not been compiled for these restrictions.
+	 */
+	private void compile(Map<String, Restriction> restrictions) {
+
+		if (compiledFor == restrictions)
+			return;
+
+		int full = vaccinationConfig.getDaysBeforeFullEffect();
+
+		for (int s = 0; s < strains.length; s++) {
+
+			VirusStrainConfigGroup.StrainParams params;
+			try {
+				params = virusStrainConfig.getParams(strains[s]);
+			} catch (IllegalStateException e) {
+				// only fails if the strain is used
+				infectiousness[s] = Double.NaN;
+				continue;
+			}
+
+			infectiousness[s] = params.getInfectiousness();
+			for (int re = 0; re < 2; re++) {
+				vaccination[s][re * 3] = DefaultInfectionModel.getVaccinationEffectiveness(params, re == 1, 0, vaccinationConfig);
+				vaccination[s][re * 3 + 1] = DefaultInfectionModel.getVaccinationEffectiveness(params, re == 1, 3, vaccinationConfig);
+				vaccination[s][re * 3 + 2] = DefaultInfectionModel.getVaccinationEffectiveness(params, re == 1, full, vaccinationConfig);
+			}
+		}
+
+		for (EpisimConfigGroup.InfectionParams p : episimConfig.getInfectionParams())
+			register(p);
+
+		int n = params.length;
+		if (restriction.length != n) {
+			restriction = new Restriction[n];
+			factor = new double[n * n];
+		}
+
+		for (int i = 0; i < n; i++)
+			restriction[i] = params[i] != null ? restrictions.get(params[i].getContainerName()) : null;
+
+		double calibrationParameter = episimConfig.getCalibrationParameter();
+		Arrays.fill(factor, Double.NaN);
+
+		for (int i = 0; i < n; i++) {
+			if (restriction[i] == null) continue;
+			for (int j = 0; j < n; j++) {
+				if (restriction[j] == null) continue;
+				factor[i * n + j] = calibrationParameter * Math.min(restriction[i].getCiCorrection(), restriction[j].getCiCorrection());
+			}
+		}
+
+		compiledFor = restrictions;
+	}
+
+	/**
+	 * Add params to the tables, preferably at their own index.
+	 *
+	 * @return whether the params were not known before
+	 */
+	private boolean register(EpisimConfigGroup.InfectionParams p) {
+
+		for (EpisimConfigGroup.InfectionParams known : params) {
+			if (known == p)
+				return false;
+		}
+
+		int idx = p.getIndex();
+		if (idx < 0 || (idx < params.length && params[idx] != null))
+			idx = params.length;
+
+		if (idx >= params.length)
+			params = Arrays.copyOf(params, idx + 1);
+
+		params[idx] = p;
+		return true;
+	}
+
+	/**
+	 * Index of the params in all tables. Needs to be called before any other lookup.
+	 */
+	int index(Map<String, Restriction> restrictions, EpisimConfigGroup.InfectionParams params) {
+		compile(restrictions);
+
+		int idx = params.getIndex();
+		if (idx >= 0 && idx < this.params.length && this.params[idx] == params)
+			return idx;
+
+		// params that are not part of the config, or could not use their own index, are added on demand
+		if (register(params)) {
+			compiledFor = null;
+			compile(restrictions);
+		}
+
+		for (int i = 0; i < this.params.length; i++) {
+			if (this.params[i] == params)
+				return i;
+		}
+
+		throw new IllegalStateException("Params could not be indexed: " + params.getContainerName());
+	}
+
+	/**
+	 * Restriction for params with index {@code i}.
+	 */
+	Restriction restriction(int i) {
+		return restriction[i];
+	}
+
+	/**
+	 * Calibration parameter times ci correction for the params of target ({@code i}) and infector ({@code j}).
+	 */
+	double factor(int i, int j) {
+		return factor[i * restriction.length + j];
+	}
+
+	/**
+	 * Infectiousness of a strain.
+	 */
+	double infectiousness(VirusStrain strain) {
+		double value = infectiousness[strain.ordinal()];
+		if (Double.isNaN(value))
+			// throws the appropriate exception
+			return virusStrainConfig.getParams(strain).getInfectiousness();
+
+		return value;
+	}
+
+	/**
+	 * Relative susceptibility of the target due to vaccination against {@code strain}.
+	 */
+	double vaccination(EpisimPerson target, VirusStrain strain) {
+
+		if (target.getVaccinationStatus() == EpisimPerson.VaccinationStatus.no)
+			return 1;
+
+		int days = target.daysSince(EpisimPerson.VaccinationStatus.yes, iteration);
+		int bucket = days >= vaccinationConfig.getDaysBeforeFullEffect() ? 2 : days >= 3 ? 1 : 0;
+		if (target.getReVaccinationStatus() == EpisimPerson.VaccinationStatus.yes)
+			bucket += 3;
+
+		return vaccination[strain.ordinal()][bucket];
+	}
+
+	/**
+	 * Computes {@code 1 - exp(-exponent)}, approximated if enabled in the config.
+	 */
+	double probability(double exponent) {
+
+		if (!episimConfig.isApproximateInfectionProbability() || !(exponent >= 0))
+			return 1 - Math.exp(-exponent);
+
+		if (exponent >= MAX_EXPONENT)
+			return 1;
+
+		double x = exponent * STEPS_PER_UNIT;
+		int i = (int) x;
+		double w = x - i;
+
+		return PROBABILITY[i] + w * (PROBABILITY[i + 1] - PROBABILITY[i]);
+	}
+}
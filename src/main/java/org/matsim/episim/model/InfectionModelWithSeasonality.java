@@ -8,7 +8,6 @@ import org.matsim.episim.policy.Restriction;
 
 import java.time.LocalDate;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.SplittableRandom;
 
 /**
@@ -73,7 +72,7 @@ public final class InfectionModelWithSeasonality implements InfectionModel {
 	 */
 	static double interpolateOutdoorFraction(EpisimConfigGroup episimConfig, int iteration) {
 		LocalDate date = episimConfig.getStartDate().plusDays(iteration-1);
-		return EpisimUtils.interpolateEntry((NavigableMap<LocalDate, ? extends Number>) episimConfig.getLeisureOutdoorFraction(), date);
+		return episimConfig.getLeisureOutdoorFractionTimeline().get(date);
 	}
 
 	static double getIndoorOutdoorFactor(double outdoorFraction, SplittableRandom rnd, EpisimConfigGroup.InfectionParams act1, EpisimConfigGroup.InfectionParams act2) {
@@ -5,6 +5,7 @@ import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.episim.EpisimConfigGroup;
 import org.matsim.episim.EpisimPerson;
+import org.matsim.episim.PersonAttributeStore;
 import org.matsim.episim.VirusStrainConfigGroup;
 import org.matsim.episim.policy.Restriction;
 
@@ -22,12 +23,16 @@ public final class InfectionModelWithViralLoad implements InfectionModel {
 	private final FaceMaskModel maskModel;
 	private final EpisimConfigGroup episimConfig;
 	private final VirusStrainConfigGroup virusStrainConfig;
+	private final PersonAttributeStore.DoubleColumn susceptibility;
+	private final PersonAttributeStore.DoubleColumn viralLoad;
 
 	@Inject
-	public InfectionModelWithViralLoad(FaceMaskModel faceMaskModel, Config config) {
+	public InfectionModelWithViralLoad(FaceMaskModel faceMaskModel, Config config, PersonAttributeStore attributeStore) {
 		this.maskModel = faceMaskModel;
 		this.episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
 		this.virusStrainConfig = ConfigUtils.addOrGetModule(config, VirusStrainConfigGroup.class);
+		this.susceptibility = attributeStore.declareDouble(SUSCEPTIBILITY);
+		this.viralLoad = attributeStore.declareDouble(VIRAL_LOAD);
 	}
 
 
@@ -42,10 +47,7 @@ public final class InfectionModelWithViralLoad implements InfectionModel {
 		// note that for 1pct runs, calibParam is of the order of one, which means that for typical times of 100sec or more, exp( - 1 * 1 * 100 ) \approx 0, and
 		// thus the infection proba becomes 1.  Which also means that changes in contactIntensity has no effect.  kai, mar'20
 
-		double susceptibility = (double) target.getAttributes().getAttribute(SUSCEPTIBILITY);
-		double infectability = (double) infector.getAttributes().getAttribute(VIRAL_LOAD);
-
-		return 1 - Math.exp(-episimConfig.getCalibrationParameter() * susceptibility * infectability * contactIntensity * jointTimeInContainer * ciCorrection
+		return 1 - Math.exp(-episimConfig.getCalibrationParameter() * susceptibility.get(target) * viralLoad.get(infector) * contactIntensity * jointTimeInContainer * ciCorrection
 				* virusStrainConfig.getParams(infector.getVirusStrain()).getInfectiousness()
 				* maskModel.getWornMask(infector, act2, restrictions.get(act2.getContainerName())).shedding
 				* maskModel.getWornMask(target, act1, restrictions.get(act1.getContainerName())).intake
@@ -11,6 +11,11 @@ import java.util.Map;
  */
 public interface InitialInfectionHandler {
 
+	/**
+	 * Called once after the population has been created, before the first iteration.
+	 */
+	default void init(Map<Id<Person>, EpisimPerson> persons) {}
+
 	/**
 	 * Called at the start of every iteration. This class should set the disease state of persons as necessary.
 	 * @return number of people infected
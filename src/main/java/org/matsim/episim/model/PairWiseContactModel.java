@@ -79,6 +79,18 @@ public final class PairWiseContactModel extends AbstractContactModel {
 		infectionDynamicsGeneralized(personLeavingFacility, facility, now);
 	}
 
+	@Override
+	public boolean supportsFastForward() {
+		// contacts are tracked between enter and leave notifications
+		return false;
+	}
+
+	@Override
+	public boolean supportsInitCache() {
+		// contacts are built up during init
+		return false;
+	}
+
 	@Override
 	public void notifyEnterVehicle(EpisimPerson personEnteringVehicle, EpisimVehicle vehicle, double now) {
 		notifyEnterContainerGeneralized(personEnteringVehicle, vehicle, now);
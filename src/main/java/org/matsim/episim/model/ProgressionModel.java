@@ -26,6 +26,7 @@ import org.matsim.episim.EpisimPerson;
 import org.matsim.episim.EpisimReporting;
 
 import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * This class models the {@link org.matsim.episim.EpisimPerson.DiseaseStatus} state transitions at the end of the day.
@@ -44,11 +45,41 @@ public interface ProgressionModel {
 	 */
 	void updateState(EpisimPerson person, int day);
 
+	/**
+	 * Update the state of a person, but draw random numbers only from {@code rnd}.
+	 * This is used when the population is updated in parallel chunks or with per-person random streams.
+	 * By default {@code rnd} is ignored and {@link #updateState(EpisimPerson, int)} is used, which is only valid for sequential updates
+	 * of models that neither {@link #supportsParallelUpdates()} nor {@link #supportsRandomStreams()}.
+	 */
+	default void updateState(EpisimPerson person, int day, SplittableRandom rnd) {
+		updateState(person, day);
+	}
+
+	/**
+	 * Whether {@link #updateState(EpisimPerson, int, SplittableRandom)} may be called concurrently for distinct persons.
+	 * Such updates must only change the given person, any other side effects have to be deferred to {@link #afterStateUpdates(Map, int)}.
+	 */
+	default boolean supportsParallelUpdates() {
+		return false;
+	}
+
+	/**
+	 * Whether {@link #updateState(EpisimPerson, int, SplittableRandom)} may be called sequentially with a separate random stream for each person.
+	 */
+	default boolean supportsRandomStreams() {
+		return false;
+	}
+
 	/**
 	 * Called before all state updates for all persons have been done.
 	 */
 	default void beforeStateUpdates(Map<Id<Person>, EpisimPerson> persons, int day, EpisimReporting.InfectionReport report) {}
 
+	/**
+	 * Called after all state updates for all persons have been done.
+	 */
+	default void afterStateUpdates(Map<Id<Person>, EpisimPerson> persons, int day) {}
+
 	/**
 	 * Checks whether any state transitions are possible. Otherwise the simulation will end.
 	 */
@@ -11,13 +11,14 @@ import org.matsim.core.config.ConfigUtils;
 import org.matsim.episim.EpisimConfigGroup;
 import org.matsim.episim.EpisimPerson;
 import org.matsim.episim.EpisimUtils;
+import org.matsim.episim.PersonAttributeStore;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.SplittableRandom;
-import java.util.stream.Collectors;
 
 /**
  * Randomly infect persons, optionally filtering by age group and district.
@@ -26,15 +27,67 @@ public class RandomInitialInfections implements InitialInfectionHandler {
 
 	private static final Logger log = LogManager.getLogger(RandomInitialInfections.class);
 
+	/**
+	 * Age of persons without age attribute.
+	 */
+	private static final int NO_AGE = Integer.MIN_VALUE;
+
 	private final EpisimConfigGroup episimConfig;
 	private final SplittableRandom rnd;
+	private final PersonAttributeStore.StringColumn districtColumn;
+	private final PersonAttributeStore.IntColumn ageColumn;
 
 	private int initialInfectionsLeft;
 
+	/**
+	 * Persons matching the district and age filter. Only the first {@link #candidatesLeft} entries are still candidates,
+	 * persons are moved behind this boundary when drawn or when they are not susceptible anymore.
+	 */
+	private EpisimPerson[] candidates;
+	private int candidatesLeft;
+
+	/**
+	 * Filter values the candidates have been selected with.
+	 */
+	private String district;
+	private int lowerAge;
+	private int upperAge;
+
 	@Inject
-	public RandomInitialInfections(Config config, SplittableRandom rnd) {
+	public RandomInitialInfections(Config config, SplittableRandom rnd, PersonAttributeStore attributeStore) {
 		this.episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
 		this.rnd = rnd;
+		this.districtColumn = attributeStore.declareString("district");
+		this.ageColumn = attributeStore.declareInt("microm:modeled:age", NO_AGE);
+	}
+
+	@Override
+	public void init(Map<Id<Person>, EpisimPerson> persons) {
+
+		district = episimConfig.getInitialInfectionDistrict();
+		lowerAge = episimConfig.getLowerAgeBoundaryForInitInfections();
+		upperAge = episimConfig.getUpperAgeBoundaryForInitInfections();
+
+		candidates = persons.values().stream()
+				.filter(p -> district == null || district.equals(districtColumn.get(p)))
+				.filter(p -> lowerAge == -1 || getAge(p) >= lowerAge)
+				.filter(p -> upperAge == -1 || getAge(p) <= upperAge)
+				.toArray(EpisimPerson[]::new);
+
+		candidatesLeft = candidates.length;
+
+		log.info("Selected {} candidates for initial infections", candidatesLeft);
+	}
+
+	/**
+	 * Age of a person, which must be known when filtering by age.
+	 */
+	private int getAge(EpisimPerson person) {
+		int age = ageColumn.get(person);
+		if (age == NO_AGE)
+			throw new IllegalStateException("Person " + person.getPersonId() + " has no age, which is needed for the age boundaries of initial infections.");
+
+		return age;
 	}
 
 	@Override
@@ -42,12 +95,12 @@ public class RandomInitialInfections implements InitialInfectionHandler {
 
 		if (initialInfectionsLeft == 0) return 0;
 
-		double now = EpisimUtils.getCorrectedTime(episimConfig.getStartOffset(), 0, iteration);
-
-		String district = episimConfig.getInitialInfectionDistrict();
+		// (re-)build the candidates if init was not called or the filter has been changed
+		if (candidates == null || !Objects.equals(district, episimConfig.getInitialInfectionDistrict())
+				|| lowerAge != episimConfig.getLowerAgeBoundaryForInitInfections() || upperAge != episimConfig.getUpperAgeBoundaryForInitInfections())
+			init(persons);
 
-		int lowerAgeBoundaryForInitInfections = episimConfig.getLowerAgeBoundaryForInitInfections();
-		int upperAgeBoundaryForInitInfections = episimConfig.getUpperAgeBoundaryForInitInfections();
+		double now = EpisimUtils.getCorrectedTime(episimConfig.getStartOffset(), 0, iteration);
 
 		LocalDate date = episimConfig.getStartDate().plusDays(iteration - 1);
 
@@ -57,28 +110,45 @@ public class RandomInitialInfections implements InitialInfectionHandler {
 
 			int numInfections = EpisimUtils.findValidEntry(e.getValue(), 1, date);
 
-			List<EpisimPerson> candidates = persons.values().stream()
-					.filter(p -> district == null || district.equals(p.getAttributes().getAttribute("district")))
-					.filter(p -> lowerAgeBoundaryForInitInfections == -1 || (int) p.getAttributes().getAttribute("microm:modeled:age") >= lowerAgeBoundaryForInitInfections)
-					.filter(p -> upperAgeBoundaryForInitInfections == -1 || (int) p.getAttributes().getAttribute("microm:modeled:age") <= upperAgeBoundaryForInitInfections)
-					.filter(p -> p.getDiseaseStatus() == EpisimPerson.DiseaseStatus.susceptible)
-					.collect(Collectors.toList());
+			if (numInfections <= 0)
+				continue;
 
-			if (candidates.size() < numInfections) {
+			// persons can only leave the susceptible state, so they are removed permanently
+			removeNonSusceptible();
+
+			if (candidatesLeft < numInfections) {
 				log.warn("Not enough persons match the initial infection requirement, using whole population...");
-				candidates = Lists.newArrayList(persons.values());
+				List<EpisimPerson> population = Lists.newArrayList(persons.values());
+
+				while (numInfections > 0 && initialInfectionsLeft > 0 && population.size() > 0) {
+					int idx = rnd.nextInt(population.size());
+					int last = population.size() - 1;
+					EpisimPerson randomPerson = population.get(idx);
+					population.set(idx, population.get(last));
+					population.remove(last);
+
+					if (randomPerson.getDiseaseStatus() == EpisimPerson.DiseaseStatus.susceptible) {
+						infect(randomPerson, e.getKey(), now);
+						numInfections--;
+						infected++;
+					}
+				}
+
+				continue;
 			}
 
-			while (numInfections > 0 && initialInfectionsLeft > 0 && candidates.size() > 0) {
-				EpisimPerson randomPerson = candidates.remove(rnd.nextInt(candidates.size()));
-				if (randomPerson.getDiseaseStatus() == EpisimPerson.DiseaseStatus.susceptible) {
-					randomPerson.setDiseaseStatus(now, EpisimPerson.DiseaseStatus.infectedButNotContagious);
-					randomPerson.setVirusStrain(e.getKey());
-					log.warn("Person {} has initial infection with {}.", randomPerson.getPersonId(), e.getKey());
-					initialInfectionsLeft--;
-					numInfections--;
-					infected++;
-				}
+			while (numInfections > 0 && initialInfectionsLeft > 0 && candidatesLeft > 0) {
+				int idx = rnd.nextInt(candidatesLeft);
+				EpisimPerson randomPerson = candidates[idx];
+
+				// swap with the last remaining candidate
+				candidates[idx] = candidates[candidatesLeft - 1];
+				candidates[candidatesLeft - 1] = randomPerson;
+				candidatesLeft--;
+
+				infect(randomPerson, e.getKey(), now);
+				numInfections--;
+				infected++;
 			}
 		}
 
@@ -86,6 +156,28 @@ public class RandomInitialInfections implements InitialInfectionHandler {
 		return infected;
 	}
 
+	/**
+	 * Move all candidates that are not susceptible anymore behind the remaining ones.
+	 */
+	private void removeNonSusceptible() {
+		int n = 0;
+		for (int i = 0; i < candidatesLeft; i++) {
+			EpisimPerson p = candidates[i];
+			if (p.getDiseaseStatus() == EpisimPerson.DiseaseStatus.susceptible) {
+				candidates[i] = candidates[n];
+				candidates[n++] = p;
+			}
+		}
+		candidatesLeft = n;
+	}
+
+	private void infect(EpisimPerson person, VirusStrain strain, double now) {
+		person.setDiseaseStatus(now, EpisimPerson.DiseaseStatus.infectedButNotContagious);
+		person.setVirusStrain(strain);
+		log.warn("Person {} has initial infection with {}.", person.getPersonId(), strain);
+		initialInfectionsLeft--;
+	}
+
 	@Override
 	public int getInfectionsLeft() {
 		return initialInfectionsLeft;
@@ -1,10 +1,15 @@
 package org.matsim.episim.model;
 
 import com.google.inject.Inject;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.episim.CounterRandom;
+import org.matsim.episim.EpisimConfigGroup;
 import org.matsim.episim.EpisimPerson;
 
 import java.util.List;
@@ -21,9 +26,20 @@ public class RandomVaccination implements VaccinationModel {
 
 	private final SplittableRandom rnd;
 
-	@Inject
+	/**
+	 * Counter-based random numbers, null if {@link #rnd} is used.
+	 */
+	private final CounterRandom counterRandom;
+
 	public RandomVaccination(SplittableRandom rnd) {
 		this.rnd = rnd;
+		this.counterRandom = null;
+	}
+
+	@Inject
+	public RandomVaccination(SplittableRandom rnd, Config config, CounterRandom counterRandom) {
+		this.rnd = rnd;
+		this.counterRandom = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class).isCounterBasedRandom() ? counterRandom : null;
 	}
 
 
@@ -45,6 +61,11 @@ public class RandomVaccination implements VaccinationModel {
 			return 0;
 		}
 
+		if (counterRandom != null) {
+			vaccinateByKey(candidates, reVaccination, availableVaccinations, iteration);
+			return availableVaccinations;
+		}
+
 		int vaccinationsLeft = availableVaccinations;
 		int vaccinated = 0;
 		while (vaccinationsLeft > 0) {
@@ -57,4 +78,22 @@ public class RandomVaccination implements VaccinationModel {
 
 		return vaccinated;
 	}
+
+	/**
+	 * Vaccinate the candidates with the smallest random keys, which selects them independently of the order of the population.
+	 */
+	private void vaccinateByKey(List<EpisimPerson> candidates, boolean reVaccination, int n, int iteration) {
+
+		long[] keys = new long[candidates.size()];
+		int[] order = new int[candidates.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = counterRandom.key(iteration, CounterRandom.entity(candidates.get(i).getPersonId()), CounterRandom.Purpose.vaccination);
+			order[i] = i;
+		}
+
+		IntArrays.quickSort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+		for (int i = 0; i < n; i++)
+			vaccinate(candidates.get(order[i]), iteration, reVaccination);
+	}
 }
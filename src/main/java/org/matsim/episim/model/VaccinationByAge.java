@@ -4,7 +4,6 @@ import com.google.inject.Inject;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.episim.EpisimPerson;
-import org.matsim.episim.EpisimUtils;
 
 import java.util.*;
 
@@ -18,6 +17,22 @@ public class VaccinationByAge implements VaccinationModel {
 	private final static int MAX_AGE = 130;
 	private final static int MINIMUM_AGE_FOR_VACCINATIONS = 0;
 
+	/**
+	 * Persons that may be eligible for first vaccination, bucketed by age.
+	 * Persons that became ineligible, e.g. by infection, are discarded when drawn, because they can never become eligible again.
+	 */
+	private List<EpisimPerson>[] firstPool;
+
+	/**
+	 * Persons that may be eligible for re-vaccination, bucketed by age.
+	 */
+	private List<EpisimPerson>[] rePool;
+
+	/**
+	 * Population the pools have been built for.
+	 */
+	private Map<Id<Person>, EpisimPerson> population;
+
 	@Inject
 	public VaccinationByAge(SplittableRandom rnd) {
 		this.rnd = rnd;
@@ -29,22 +44,11 @@ public class VaccinationByAge implements VaccinationModel {
 		if (availableVaccinations == 0)
 			return 0;
 
-		// perAge is an ArrayList where we have for each age (in years) an
-		// ArrayList of Persons that are qualified for a vaccination
-		final List<EpisimPerson>[] perAge = new List[MAX_AGE];
+		// pools are built once and also after restoring a snapshot, in that case the order of draws may differ from an uninterrupted run
+		if (population != persons)
+			initPools(persons);
 
-		for (int i = 0; i < MAX_AGE; i++)
-			perAge[i] = new ArrayList<>();
-
-		for (EpisimPerson p : persons.values()) {
-			if (p.isVaccinable() &&
-					p.getDiseaseStatus() == EpisimPerson.DiseaseStatus.susceptible &&
-					(p.getVaccinationStatus() == (reVaccination ? EpisimPerson.VaccinationStatus.yes : EpisimPerson.VaccinationStatus.no) )&&
-					p.getReVaccinationStatus() == EpisimPerson.VaccinationStatus.no) {
-
-				perAge[p.getAge()].add(p);
-			}
-		}
+		final List<EpisimPerson>[] perAge = reVaccination ? rePool : firstPool;
 
 		int age = MAX_AGE - 1;
 		int vaccinationsLeft = availableVaccinations;
@@ -53,14 +57,23 @@ public class VaccinationByAge implements VaccinationModel {
 
 			List<EpisimPerson> candidates = perAge[age];
 
-			// list is shuffled to avoid eventual bias
-			if (candidates.size() > vaccinationsLeft)
-				Collections.shuffle(perAge[age], new Random(EpisimUtils.getSeed(rnd)));
+			while (vaccinationsLeft > 0 && !candidates.isEmpty()) {
+
+				// draw without replacement by swapping with the last element
+				int idx = rnd.nextInt(candidates.size());
+				int last = candidates.size() - 1;
+				EpisimPerson person = candidates.get(idx);
+				candidates.set(idx, candidates.get(last));
+				candidates.remove(last);
+
+				if (!isEligible(person, reVaccination))
+					continue;
 
-			for (int i = 0; i < Math.min(candidates.size(), vaccinationsLeft); i++) {
-				EpisimPerson person = candidates.get(i);
 				vaccinate(person, iteration, reVaccination);
 				vaccinationsLeft--;
+
+				if (!reVaccination)
+					rePool[age].add(person);
 			}
 
 			age--;
@@ -68,4 +81,38 @@ public class VaccinationByAge implements VaccinationModel {
 
 		return availableVaccinations - vaccinationsLeft;
 	}
+
+	/**
+	 * Sort all currently eligible persons into the age buckets.
+	 */
+	@SuppressWarnings("unchecked")
+	private void initPools(Map<Id<Person>, EpisimPerson> persons) {
+
+		firstPool = new List[MAX_AGE];
+		rePool = new List[MAX_AGE];
+
+		for (int i = 0; i < MAX_AGE; i++) {
+			firstPool[i] = new ArrayList<>();
+			rePool[i] = new ArrayList<>();
+		}
+
+		for (EpisimPerson p : persons.values()) {
+			if (isEligible(p, false))
+				firstPool[p.getAge()].add(p);
+			else if (isEligible(p, true))
+				rePool[p.getAge()].add(p);
+		}
+
+		population = persons;
+	}
+
+	/**
+	 * Whether a person can receive a (re-)vaccination.
+	 */
+	private static boolean isEligible(EpisimPerson p, boolean reVaccination) {
+		return p.isVaccinable() &&
+				p.getDiseaseStatus() == EpisimPerson.DiseaseStatus.susceptible &&
+				p.getVaccinationStatus() == (reVaccination ? EpisimPerson.VaccinationStatus.yes : EpisimPerson.VaccinationStatus.no) &&
+				p.getReVaccinationStatus() == EpisimPerson.VaccinationStatus.no;
+	}
 }
@@ -95,6 +95,14 @@ public final class DataBasedTestingModel extends DefaultTestingModel {
 		}
 	}
 
+	/**
+	 * Capacities are limited per activity, so this model always tests sequentially.
+	 */
+	@Override
+	public boolean supportsParallelUpdates() {
+		return false;
+	}
+
 	@Override
 	public void performTesting(EpisimPerson person, int day) {
 
@@ -9,9 +9,9 @@ import org.matsim.episim.*;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.SplittableRandom;
 
 /**
@@ -35,9 +35,34 @@ public class DefaultTestingModel implements TestingModel {
 	private Object2DoubleMap<String> testingRateForActivities;
 
 	/**
-	 * Ids of households that are not compliant.
+	 * Indices of households that are not compliant.
 	 */
-	private final Set<String> nonCompliantHouseholds = new HashSet<>();
+	private final BitSet nonCompliantHouseholds = new BitSet();
+
+	private boolean complianceInitialized;
+
+	/**
+	 * Precomputed testing rates for the activity based strategies, for each day of week and indexed by {@link EpisimPerson#getStateIndex()}.
+	 * Entries are null if they have not been computed yet.
+	 */
+	private final float[][] activityRates = new float[7][];
+
+	/**
+	 * Rates that have been used to compute {@link #activityRates}, for each day of week.
+	 */
+	@SuppressWarnings("unchecked")
+	private final Object2DoubleMap<String>[] activityRatesComputedFor = new Object2DoubleMap[7];
+	private final double[] testingRateComputedFor = new double[7];
+
+	/**
+	 * Day of week whose rates have been checked against the configured rates of the current iteration, -1 if none.
+	 */
+	private int validActivityRates = -1;
+
+	/**
+	 * Whether persons have dense and unique state indices, which is not the case for persons created outside a handler.
+	 */
+	private boolean denseIndex = true;
 
 	@Inject
 	DefaultTestingModel(SplittableRandom rnd, Config config, TestingConfigGroup testingConfig, EpisimConfigGroup episimConfig) {
@@ -52,51 +77,139 @@ public class DefaultTestingModel implements TestingModel {
 
 		LocalDate date = episimConfig.getStartDate().plusDays(day - 1);
 
-		testingCapacity = EpisimUtils.findValidEntry(testingConfig.getTestingCapacity(), 0, date);
+		testingCapacity = testingConfig.getTestingCapacityTimeline().getInt(date);
 		if (testingCapacity != Integer.MAX_VALUE)
 			testingCapacity *= episimConfig.getSampleSize();
 
 		testingRateForActivities = testingConfig.getDailyTestingRateForActivities(date);
+		validActivityRates = -1;
 	}
 
 	@Override
 	public void beforeStateUpdates(Map<Id<Person>, EpisimPerson> personMap, int iteration, EpisimReporting.InfectionReport report) {
 
-		if (nonCompliantHouseholds.isEmpty() && testingConfig.getHouseholdCompliance() < 1.0)
+		if (!complianceInitialized && testingConfig.getHouseholdCompliance() < 1.0)
 			initCompliance(personMap);
 
+		TestingConfigGroup.Strategy strategy = testingConfig.getStrategy();
+		if (strategy == TestingConfigGroup.Strategy.ACTIVITIES || strategy == TestingConfigGroup.Strategy.FIXED_ACTIVITIES) {
+
+			// testing is performed for the next day
+			DayOfWeek dow = EpisimUtils.getDayOfWeek(episimConfig, iteration + 1);
+			int d = dow.getValue() - 1;
+
+			// only the rates of this day of week are recomputed if the configured rates changed
+			if (denseIndex && (activityRates[d] == null || !testingRateForActivities.equals(activityRatesComputedFor[d])
+					|| testingConfig.getTestingRate() != testingRateComputedFor[d])) {
+				activityRates[d] = computeActivityRates(personMap, dow);
+				activityRatesComputedFor[d] = testingRateForActivities;
+				testingRateComputedFor[d] = testingConfig.getTestingRate();
+			}
+
+			validActivityRates = d;
+		}
+
 	}
 
+	/**
+	 * Draw non compliant households.
+	 */
 	private void initCompliance(Map<Id<Person>, EpisimPerson> personMap) {
 
 		// TODO: this class may needs to be added to the snapshot
 		SplittableRandom rnd = new SplittableRandom(config.global().getRandomSeed());
 
 		// don't draw one household multiple times
-		Set<String> checked = new HashSet<>();
+		BitSet checked = new BitSet();
 
 		for (EpisimPerson p : personMap.values()) {
-			String home = getHomeId(p);
+			int household = p.getHouseholdIndex();
 
-			if (!checked.contains(home)) {
+			if (household != -1 && !checked.get(household)) {
 				if (rnd.nextDouble() > testingConfig.getHouseholdCompliance())
-					nonCompliantHouseholds.add(home);
+					nonCompliantHouseholds.set(household);
 
-				checked.add(home);
+				checked.set(household);
 			}
 		}
+
+		complianceInitialized = true;
 	}
 
-	private String getHomeId(EpisimPerson person) {
-		String home = (String) person.getAttributes().getAttribute("homeId");
-		// fallback to person id if there is no home
-		return home != null ? home : person.getPersonId().toString();
+	/**
+	 * Compute the testing rate of all persons for activity based testing on one day.
+	 *
+	 * @return rates indexed by state index, or null if the persons have no dense index
+	 */
+	private float[] computeActivityRates(Map<Id<Person>, EpisimPerson> personMap, DayOfWeek dow) {
+
+		float[] rates = new float[personMap.size()];
+		BitSet seen = new BitSet(rates.length);
+
+		for (EpisimPerson p : personMap.values()) {
+			int idx = p.getStateIndex();
+			if (idx >= rates.length || seen.get(idx)) {
+				denseIndex = false;
+				Arrays.fill(activityRates, null);
+				return null;
+			}
+
+			seen.set(idx);
+			rates[idx] = (float) computeActivityRate(p, dow);
+		}
+
+		return rates;
+	}
+
+	private double computeActivityRate(EpisimPerson person, DayOfWeek dow) {
+		return person.matchActivities(dow, testingConfig.getActivities(),
+				(act, v) -> Math.max(v, testingRateForActivities.getOrDefault(act, testingConfig.getTestingRate())), 0d);
+	}
+
+	/**
+	 * Testing rate of a person for activity based testing, using precomputed values if available.
+	 */
+	private double getActivityRate(EpisimPerson person, DayOfWeek dow) {
+		int d = dow.getValue() - 1;
+		float[] rates = activityRates[d];
+		int idx = person.getStateIndex();
+
+		if (d == validActivityRates && rates != null && idx < rates.length)
+			return rates[idx];
+
+		return computeActivityRate(person, dow);
+	}
+
+	private boolean isNonCompliant(EpisimPerson person) {
+		return !nonCompliantHouseholds.isEmpty() && person.getHouseholdIndex() != -1
+				&& nonCompliantHouseholds.get(person.getHouseholdIndex());
 	}
 
 	/**
 	 * Perform the testing procedure.
 	 */
 	public void performTesting(EpisimPerson person, int day) {
+		performTesting(person, day, rnd);
+	}
+
+	/**
+	 * Testing can only be done in parallel if the capacity is not limited, otherwise the tested persons depend on the update order.
+	 */
+	@Override
+	public boolean supportsParallelUpdates() {
+		return testingCapacity == Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Random streams are also supported with limited capacity, persons are then tested sequentially.
+	 */
+	@Override
+	public boolean supportsRandomStreams() {
+		return true;
+	}
+
+	@Override
+	public void performTesting(EpisimPerson person, int day, SplittableRandom rnd) {
 
 		if (testingConfig.getStrategy() == TestingConfigGroup.Strategy.NONE)
 			return;
@@ -113,19 +226,17 @@ public class DefaultTestingModel implements TestingModel {
 		DayOfWeek dow = EpisimUtils.getDayOfWeek(episimConfig, day + 1);
 
 		if (testingConfig.getStrategy() == TestingConfigGroup.Strategy.FIXED_DAYS && testingConfig.getTestDays().contains(dow)) {
-				testAndQuarantine(person, day, testingConfig.getTestingRate());
+				testAndQuarantine(person, day, testingConfig.getTestingRate(), rnd);
 		} else if (testingConfig.getStrategy() == TestingConfigGroup.Strategy.ACTIVITIES) {
 
-			double rate = person.matchActivities(dow, testingConfig.getActivities(),
-					(act, v) -> Math.max(v, testingRateForActivities.getOrDefault(act, testingConfig.getTestingRate())), 0d);
+			double rate = getActivityRate(person, dow);
 
-			testAndQuarantine(person, day, rate);
+			testAndQuarantine(person, day, rate, rnd);
 		} else if (testingConfig.getStrategy() == TestingConfigGroup.Strategy.FIXED_ACTIVITIES && testingConfig.getTestDays().contains(dow)) {
 
-			double rate = person.matchActivities(dow, testingConfig.getActivities(),
-					(act, v) -> Math.max(v, testingRateForActivities.getOrDefault(act, testingConfig.getTestingRate())), 0d);
+			double rate = getActivityRate(person, dow);
 
-			testAndQuarantine(person, day, rate);
+			testAndQuarantine(person, day, rate, rnd);
 		}
 	}
 
@@ -135,11 +246,20 @@ public class DefaultTestingModel implements TestingModel {
 	 * @return true if the person was tested (test result does not matter)
 	 */
 	protected boolean testAndQuarantine(EpisimPerson person, int day, double testingRate) {
+		return testAndQuarantine(person, day, testingRate, rnd);
+	}
+
+	/**
+	 * Perform testing and quarantine person, using the given random stream.
+	 *
+	 * @see #testAndQuarantine(EpisimPerson, int, double)
+	 */
+	protected final boolean testAndQuarantine(EpisimPerson person, int day, double testingRate, SplittableRandom rnd) {
 
 		if (testingRate == 0)
 			return false;
 
-		if (nonCompliantHouseholds.contains(getHomeId(person)))
+		if (isNonCompliant(person))
 			return false;
 
 		if (testingRate != 1d && rnd.nextDouble() >= testingRate)
@@ -162,7 +282,10 @@ public class DefaultTestingModel implements TestingModel {
 			quarantinePerson(person, day);
 		}
 
-		testingCapacity--;
+		// unlimited capacity is not counted down, which would also not be safe for parallel updates
+		if (testingCapacity != Integer.MAX_VALUE)
+			testingCapacity--;
+
 		return true;
 	}
 
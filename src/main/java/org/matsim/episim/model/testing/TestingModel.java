@@ -6,6 +6,7 @@ import org.matsim.episim.EpisimPerson;
 import org.matsim.episim.EpisimReporting;
 
 import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * Model to determine which persons are tested at the start of the day.
@@ -22,6 +23,30 @@ public interface TestingModel {
 	 */
 	void performTesting(EpisimPerson person, int day);
 
+	/**
+	 * Perform testing on the person, but draw random numbers only from {@code rnd}.
+	 * This is used when the population is updated in parallel chunks or with per-person random streams.
+	 * By default {@code rnd} is ignored and {@link #performTesting(EpisimPerson, int)} is used, which is only valid for sequential updates
+	 * of models that neither {@link #supportsParallelUpdates()} nor {@link #supportsRandomStreams()}.
+	 */
+	default void performTesting(EpisimPerson person, int day, SplittableRandom rnd) {
+		performTesting(person, day);
+	}
+
+	/**
+	 * Whether {@link #performTesting(EpisimPerson, int, SplittableRandom)} may be called concurrently for distinct persons on the current day.
+	 */
+	default boolean supportsParallelUpdates() {
+		return false;
+	}
+
+	/**
+	 * Whether {@link #performTesting(EpisimPerson, int, SplittableRandom)} may be called sequentially with a separate random stream for each person.
+	 */
+	default boolean supportsRandomStreams() {
+		return false;
+	}
+
 	/**
 	 * Called before {@link #performTesting(EpisimPerson, int)}.
 	 */
@@ -49,19 +49,19 @@ public class AdaptivePolicy extends ShutdownPolicy {
 	private final Config incidenceTriggers;
 
 	/**
-	 * Policy applied at the start.
+	 * Policy applied at the start. Null if not set.
 	 */
-	private final Config initialPolicy;
+	private final RestrictionTimeline initialPolicy;
 
 	/**
 	 * Policy when shutdown is in effect.
 	 */
-	private final Config restrictedPolicy;
+	private final RestrictionTimeline restrictedPolicy;
 
 	/**
 	 * Policy when everything is open.
 	 */
-	private final Config openPolicy;
+	private final RestrictionTimeline openPolicy;
 
 	/**
 	 * Store incidence for each day.
@@ -79,9 +79,9 @@ public class AdaptivePolicy extends ShutdownPolicy {
 	public AdaptivePolicy(Config config) {
 		super(config);
 		incidenceTriggers = config.getConfig("incidences");
-		restrictedPolicy = config.getConfig("restricted-policy");
-		openPolicy = config.getConfig("open-policy");
-		initialPolicy = config.hasPath("init-policy") ? config.getConfig("init-policy") : null;
+		restrictedPolicy = RestrictionTimeline.compile(config.getConfig("restricted-policy"));
+		openPolicy = RestrictionTimeline.compile(config.getConfig("open-policy"));
+		initialPolicy = config.hasPath("init-policy") ? RestrictionTimeline.compile(config.getConfig("init-policy")) : null;
 	}
 
 	/**
@@ -93,12 +93,8 @@ public class AdaptivePolicy extends ShutdownPolicy {
 
 	@Override
 	public void init(LocalDate start, ImmutableMap<String, Restriction> restrictions) {
-		if (initialPolicy != null && !initialPolicy.isEmpty()) {
-
-			for (Map.Entry<String, Restriction> e : restrictions.entrySet()) {
-				updateRestrictions(start, initialPolicy, e.getKey(), e.getValue());
-			}
-		}
+		if (initialPolicy != null)
+			initialPolicy.applyBefore(start, null, restrictions);
 	}
 
 	@Override
@@ -138,13 +134,13 @@ public class AdaptivePolicy extends ShutdownPolicy {
 
 			if (inLockdown.getBoolean(act)) {
 				if (incidence.values().stream().allMatch(inc -> inc <= trigger.get(0))) {
-					updateRestrictions(date, openPolicy, act, restrictions.get(act));
+					openPolicy.applyBefore(date, act, restrictions);
 					inLockdown.put(act, false);
 				}
 
 			} else {
 				if (incidence.getDouble(incidence.lastKey()) >= trigger.get(1)) {
-					updateRestrictions(date, restrictedPolicy, act, restrictions.get(act));
+					restrictedPolicy.applyBefore(date, act, restrictions);
 					inLockdown.put(act, true);
 				}
 			}
@@ -159,25 +155,6 @@ public class AdaptivePolicy extends ShutdownPolicy {
 		this.cumCases.put(LocalDate.parse(report.date), cases);
 	}
 
-	private void updateRestrictions(LocalDate start, Config policy, String act, Restriction restriction) {
-
-		// activity name
-		if (!policy.hasPath(act))
-			return;
-
-		Config actConfig = policy.getConfig(act);
-
-		for (Map.Entry<String, ConfigValue> days : actConfig.root().entrySet()) {
-			if (days.getKey().startsWith("day")) continue;
-
-			LocalDate date = LocalDate.parse(days.getKey());
-			if (date.isBefore(start)) {
-				Restriction r = Restriction.fromConfig(actConfig.getConfig(days.getKey()));
-				restriction.update(r);
-			}
-		}
-	}
-
 	/**
 	 * Config builder for {@link AdaptivePolicy}.
 	 */
@@ -59,6 +59,12 @@ public final class Restriction {
 	 */
 	private Map<FaceMask, Double> maskUsage = new EnumMap<>(FaceMask.class);
 
+	/**
+	 * Masks and cumulative probabilities of {@link #maskUsage} as arrays, updated whenever the mask usage changes.
+	 */
+	private FaceMask[] maskTypes = new FaceMask[0];
+	private double[] maskCumulative = new double[0];
+
 	/**
 	 * Constructor.
 	 */
@@ -104,6 +110,8 @@ public final class Restriction {
 				}
 			}
 		}
+
+		compileMasks();
 	}
 
 	/**
@@ -123,6 +131,8 @@ public final class Restriction {
 		if (closed != null) {
 			this.closed = closed.stream().map(s -> Id.create(s, ActivityFacility.class)).collect(Collectors.toSet());
 		}
+
+		compileMasks();
 	}
 
 	/**
@@ -273,23 +283,51 @@ public final class Restriction {
 	 */
 	public FaceMask determineMask(SplittableRandom rnd) {
 
-		if (maskUsage.isEmpty()) return FaceMask.NONE;
+		FaceMask[] types = maskTypes;
+		double[] cumulative = maskCumulative;
 
+		if (types.length == 0) return FaceMask.NONE;
+
+		// at most one number is drawn, and only if no mask is certain
 		double p = Double.NaN;
-		for (Map.Entry<FaceMask, Double> e : maskUsage.entrySet()) {
+		for (int i = 0; i < types.length; i++) {
 
-			if (e.getValue() == 1d) return e.getKey();
+			if (cumulative[i] == 1d) return types[i];
 			else if (Double.isNaN(p))
 				p = rnd.nextDouble();
 
-			if (p < e.getValue())
-				return e.getKey();
+			if (p < cumulative[i])
+				return types[i];
 
 		}
 
 		throw new IllegalStateException("Could not determine mask. Probabilities are likely wrong.");
 	}
 
+	/**
+	 * Copy the cumulative mask probabilities into arrays, which are faster to iterate than the map.
+	 */
+	private void compileMasks() {
+
+		if (maskUsage == null || maskUsage.isEmpty()) {
+			maskTypes = new FaceMask[0];
+			maskCumulative = new double[0];
+			return;
+		}
+
+		FaceMask[] types = new FaceMask[maskUsage.size()];
+		double[] cumulative = new double[types.length];
+
+		int i = 0;
+		for (Map.Entry<FaceMask, Double> e : maskUsage.entrySet()) {
+			types[i] = e.getKey();
+			cumulative[i++] = e.getValue();
+		}
+
+		maskCumulative = cumulative;
+		maskTypes = types;
+	}
+
 	/**
 	 * Check whether one time falls into a closing hour.
 	 *
@@ -391,6 +429,7 @@ public final class Restriction {
 		if (!r.maskUsage.isEmpty()) {
 			maskUsage.clear();
 			maskUsage.putAll(r.maskUsage);
+			compileMasks();
 		}
 	}
 
@@ -439,8 +478,10 @@ public final class Restriction {
 		if (!maskUsage.isEmpty() && !otherMasks.isEmpty() && !maskUsage.equals(otherMasks)) {
 			log.warn("Duplicated mask usage; existing value=" + maskUsage + "; new value=" + otherMasks + "; keeping existing value.");
 			log.warn("(full new restriction=" + restriction + ")");
-		} else if (maskUsage.isEmpty())
+		} else if (maskUsage.isEmpty()) {
 			maskUsage.putAll(otherMasks);
+			compileMasks();
+		}
 
 	}
 
@@ -496,6 +537,7 @@ public final class Restriction {
 	void open() {
 		remainingFraction = 1d;
 		maskUsage = null;
+		compileMasks();
 	}
 
 	/**
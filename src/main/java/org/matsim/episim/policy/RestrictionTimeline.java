@@ -0,0 +1,185 @@
+/*-
+ * #%L
+ * MATSim Episim
+ * %%
+ * Copyright (C) 2020 matsim-org
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.matsim.episim.policy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValue;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Restrictions of a policy config parsed once and indexed by day, so that daily updates only need array lookups.
+ * Entries are either keyed by simulation day ({@code day-N}) or by date, day keys take precedence.
+ * <p>
+ * Compiled timelines are immutable and shared between all policies with an equal config, e.g. parallel runs in the same JVM.
+ * The contained restrictions must only be used as argument of {@link Restriction#update(Restriction)}.
+ */
+final class RestrictionTimeline {
+
+	private static final Cache<Config, RestrictionTimeline> CACHE = CacheBuilder.newBuilder()
+			.maximumSize(64)
+			.softValues()
+			.build();
+
+	/**
+	 * All activities with configured restrictions.
+	 */
+	private final String[] activities;
+
+	/**
+	 * Restrictions by day and activity, null if nothing changes.
+	 */
+	private final Restriction[][] byDay;
+
+	/**
+	 * Restrictions by date (relative to {@link #firstDate}) and activity, null if nothing changes.
+	 */
+	private final Restriction[][] byDate;
+
+	/**
+	 * Epoch day of the first date entry.
+	 */
+	private final long firstDate;
+
+	private RestrictionTimeline(Config config) {
+
+		List<String> acts = new ArrayList<>();
+		Map<Integer, Map<String, Restriction>> days = new HashMap<>();
+		TreeMap<Long, Map<String, Restriction>> dates = new TreeMap<>();
+
+		for (Map.Entry<String, ConfigValue> act : config.root().entrySet()) {
+
+			acts.add(act.getKey());
+			Config actConfig = config.getConfig(act.getKey());
+
+			for (Map.Entry<String, ConfigValue> e : actConfig.root().entrySet()) {
+
+				Restriction r = Restriction.fromConfig(actConfig.getConfig(e.getKey()));
+
+				if (e.getKey().startsWith("day"))
+					days.computeIfAbsent(Integer.parseInt(e.getKey().substring(4)), k -> new HashMap<>()).put(act.getKey(), r);
+				else
+					dates.computeIfAbsent(LocalDate.parse(e.getKey()).toEpochDay(), k -> new HashMap<>()).put(act.getKey(), r);
+			}
+		}
+
+		activities = acts.toArray(new String[0]);
+
+		int maxDay = days.keySet().stream().mapToInt(Integer::intValue).filter(d -> d >= 0).max().orElse(-1);
+		byDay = new Restriction[maxDay + 1][];
+		days.forEach((day, rs) -> {
+			if (day >= 0)
+				byDay[day] = toArray(rs);
+		});
+
+		firstDate = dates.isEmpty() ? 0 : dates.firstKey();
+		byDate = new Restriction[dates.isEmpty() ? 0 : (int) (dates.lastKey() - firstDate + 1)][];
+		dates.forEach((date, rs) -> byDate[(int) (date - firstDate)] = toArray(rs));
+	}
+
+	/**
+	 * Compile a policy config or return an already compiled instance.
+	 */
+	static RestrictionTimeline compile(Config config) {
+		try {
+			return CACHE.get(config, () -> new RestrictionTimeline(config));
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Could not compile policy", e.getCause());
+		}
+	}
+
+	private Restriction[] toArray(Map<String, Restriction> rs) {
+		Restriction[] result = new Restriction[activities.length];
+		for (int i = 0; i < activities.length; i++)
+			result[i] = rs.get(activities[i]);
+
+		return result;
+	}
+
+	/**
+	 * Apply all restrictions configured for a date before {@code start} in chronological order.
+	 *
+	 * @param act only update this activity, or all if null
+	 */
+	void applyBefore(LocalDate start, String act, ImmutableMap<String, Restriction> restrictions) {
+
+		long end = Math.min(start.toEpochDay() - firstDate, byDate.length);
+		for (int d = 0; d < end; d++) {
+			if (byDate[d] != null)
+				apply(byDate[d], act, restrictions);
+		}
+	}
+
+	/**
+	 * Apply the restrictions configured for simulation {@code day}, or otherwise for its {@code date}.
+	 *
+	 * @param date date as in {@link org.matsim.episim.EpisimReporting.InfectionReport#date}, ignored if not parsable
+	 */
+	void apply(int day, String date, ImmutableMap<String, Restriction> restrictions) {
+
+		Restriction[] forDay = day >= 0 && day < byDay.length ? byDay[day] : null;
+		Restriction[] forDate = null;
+
+		if (byDate.length > 0) {
+			try {
+				long d = LocalDate.parse(date).toEpochDay() - firstDate;
+				if (d >= 0 && d < byDate.length)
+					forDate = byDate[(int) d];
+			} catch (DateTimeParseException e) {
+				// no date entry
+			}
+		}
+
+		if (forDay == null && forDate == null)
+			return;
+
+		for (int i = 0; i < activities.length; i++) {
+
+			Restriction r = forDay != null && forDay[i] != null ? forDay[i] : forDate != null ? forDate[i] : null;
+			if (r == null) continue;
+
+			Restriction target = restrictions.get(activities[i]);
+			if (target != null)
+				target.update(r);
+		}
+	}
+
+	private void apply(Restriction[] rs, String act, ImmutableMap<String, Restriction> restrictions) {
+		for (int i = 0; i < activities.length; i++) {
+
+			if (rs[i] == null || (act != null && !act.equals(activities[i]))) continue;
+
+			Restriction target = restrictions.get(activities[i]);
+			if (target != null)
+				target.update(rs[i]);
+		}
+	}
+}
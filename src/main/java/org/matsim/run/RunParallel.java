@@ -25,14 +25,21 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Module;
 import com.google.inject.util.Modules;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigValue;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
+import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.episim.*;
+import org.matsim.episim.policy.FixedPolicy;
 import org.matsim.episim.reporting.AsyncEpisimWriter;
 import org.matsim.episim.reporting.EpisimWriter;
 import picocli.CommandLine;
@@ -40,16 +47,38 @@ import picocli.CommandLine;
 import javax.annotation.Nullable;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -70,6 +99,30 @@ public class RunParallel<T> implements Callable<Integer> {
 
 	private static final Logger log = LogManager.getLogger(RunParallel.class);
 
+	/**
+	 * Directory within the output that contains run times, claimed and completed runs.
+	 */
+	private static final String RUNS_DIR = ".runs";
+
+	private static final long MB = 1024 * 1024;
+
+	/**
+	 * Interval in which workers check whether the common iterations have been simulated.
+	 */
+	private static final long BRANCH_POLL_MS = 5_000;
+
+	/**
+	 * Time after which waiting workers warn about a possibly abandoned lock.
+	 */
+	private static final long BRANCH_WARN_MS = 6 * 60 * 60 * 1000;
+
+	/**
+	 * Params that may differ between runs that are branched from a common state.
+	 */
+	private static final Set<String> BRANCH_IGNORED = Set.of("controler.outputDirectory", "controler.runId",
+			"episim.startFromSnapshot", "episim.snapshotInterval", "episim.snapshotPrefix", "episim.snapshotSeed",
+			"episim.policyConfig", "episim.progressionConfig");
+
 	@CommandLine.Option(names = "--output", defaultValue = "${env:EPISIM_OUTPUT:-output}")
 	private Path output;
 
@@ -111,6 +164,44 @@ public class RunParallel<T> implements Callable<Integer> {
 	@CommandLine.Option(names = "--silent", defaultValue = "false", description = "Disable info and warn logging")
 	private boolean silent;
 
+	@CommandLine.Option(names = "--shared-queue", defaultValue = "false", description = "Distribute runs dynamically between all worker processes " +
+			"by claiming them in the output directory, instead of splitting them by worker index. " +
+			"Runs completed by a previous execution are skipped.")
+	private boolean sharedQueue;
+
+	@CommandLine.Option(names = "--launch-id", defaultValue = "${env:EPISIM_LAUNCH_ID}", description = "Id of this execution, which must be the same " +
+			"for all workers sharing the queue. Claims of other executions are ignored. (default: SLURM_ARRAY_JOB_ID or SLURM_JOB_ID)")
+	private String launchId;
+
+	@CommandLine.Option(names = "--previous-timings", description = "Directory with run times of a previous execution (default: output/" + RUNS_DIR + ")." +
+			"Used to start the longest runs first.")
+	private Path previousTimings;
+
+	@CommandLine.Option(names = "--memory-admission", defaultValue = "false", description = "Only start tasks while their estimated heap usage fits into the maximum heap.")
+	private boolean memoryAdmission;
+
+	@CommandLine.Option(names = "--task-memory", defaultValue = "0", description = "Heap usage per task in MB used for admission. (0=estimate from population and tracing)")
+	private int taskMemory;
+
+	@CommandLine.Option(names = "--memory-margin", defaultValue = "1024", description = "Heap in MB that is kept free when admitting tasks.")
+	private int memoryMargin;
+
+	@CommandLine.Option(names = "--bytes-per-person", defaultValue = "1024", description = "Heap usage per person of one run without contact tracing, " +
+			"used to estimate the task memory. Finished tasks log their estimate next to the used heap, which can be used to calibrate this value.")
+	private long bytesPerPerson;
+
+	@CommandLine.Option(names = "--bytes-per-traced-person", defaultValue = "2048", description = "Heap usage per person of one run with contact tracing.")
+	private long bytesPerTracedPerson;
+
+	@CommandLine.Option(names = "--admission-gc", defaultValue = "false", description = "Force a full garbage collection before measuring the heap " +
+			"that is available for admission. Otherwise the usage after the last collection is used.")
+	private boolean admissionGc;
+
+	@CommandLine.Option(names = "--branch-iteration", defaultValue = "0", description = "Simulate all iterations before this one only once " +
+			"and start all runs from the resulting state. Only runs that are identical to the first run until then are branched, " +
+			"the others start from the first iteration. With several workers, only one of them simulates the common iterations. (0=disabled)")
+	private int branchIteration;
+
 	public static final String OPTION_METADATA = "--write-metadata";
 	@CommandLine.Option(names = OPTION_METADATA, description = "Write metadata to output directory.", defaultValue = "false")
 	private boolean writeMetadata;
@@ -149,6 +240,14 @@ public class RunParallel<T> implements Callable<Integer> {
 
 		if (!Files.exists(output)) Files.createDirectories(output);
 
+		if (sharedQueue && launchId == null) {
+			launchId = System.getenv("SLURM_ARRAY_JOB_ID") != null ? System.getenv("SLURM_ARRAY_JOB_ID") : System.getenv("SLURM_JOB_ID");
+			if (launchId == null) {
+				log.error("A shared queue requires the same --launch-id for all workers.");
+				return 1;
+			}
+		}
+
 		// Same context as if would be run from config
 		URL context = new File("./input").toURI().toURL();
 
@@ -167,6 +266,7 @@ public class RunParallel<T> implements Callable<Integer> {
 
 		Scenario scenario = null;
 		ReplayHandler replay = null;
+		PopulationImage image = null;
 		AsyncEpisimWriter writer = asyncIO ? new AsyncEpisimWriter(threads) : null;
 
 		if (noReuse) {
@@ -180,6 +280,24 @@ public class RunParallel<T> implements Callable<Integer> {
 
 			scenario = injector.getInstance(Scenario.class);
 			replay = injector.getInstance(ReplayHandler.class);
+
+			// trajectories are the same for all runs and only kept once
+			image = new PopulationImage();
+		}
+
+		Path branch = null;
+		Set<Integer> branched = Set.of();
+		if (branchIteration > 0) {
+			if (noReuse) {
+				log.error("Branching requires reuse of scenario and events.");
+				return 1;
+			}
+
+			branched = branchableRuns();
+
+			branch = branchSnapshot(context, scenario, replay, image);
+			if (branch == null)
+				return 1;
 		}
 
 		BufferedWriter infoWriter = null;
@@ -188,6 +306,8 @@ public class RunParallel<T> implements Callable<Integer> {
 			infoWriter = CreateBatteryForCluster.writeInfoHeader(output, prepare);
 		}
 
+		List<PreparedRun.Run> selected = new ArrayList<>();
+
 		int i = 0;
 		for (PreparedRun.Run run : prepare.runs) {
 
@@ -195,7 +315,8 @@ public class RunParallel<T> implements Callable<Integer> {
 				CreateBatteryForCluster.writeRunToInfo(infoWriter, output, prepare, run, prepare.getName());
 			}
 
-			if (i++ % totalWorker != workerIndex)
+			// with a shared queue all workers consider all runs
+			if (i++ % totalWorker != workerIndex && !sharedQueue)
 				continue;
 
 			if (i < minJob)
@@ -216,23 +337,64 @@ public class RunParallel<T> implements Callable<Integer> {
 				return 1;
 			}
 
+			if (branch != null && branched.contains(run.id))
+				episimConfig.setStartFromSnapshot(branch.toString());
+
 			String outputPath = output + "/" + prepare.getOutputName(run);
 			run.config.controler().setOutputDirectory(outputPath);
 			run.config.controler().setRunId(prepare.setup.getMetadata().name + run.id);
 			run.config.setContext(context);
 
-			futures.add(CompletableFuture.runAsync(
-					new Task(((BatchRun) prepare.setup).getBindings(run.id, run.args), new ParallelModule(run.config, scenario, replay, writer), maxIterations), executor)
-					.exceptionally(t -> {
-						log.error("Task {} failed", outputPath, t);
-						return null;
-					}));
+			selected.add(run);
 		}
 
 		if (writeMetadata) {
 			infoWriter.close();
 		}
 
+		Path runsDir = output.resolve(RUNS_DIR);
+		if (!Files.exists(runsDir)) Files.createDirectories(runsDir);
+
+		if (sharedQueue)
+			skipCompletedRuns(selected, runsDir);
+
+		// longest runs are started first, so that no long run is left at the end
+		Object2DoubleMap<Integer> estimates = readRunTimes(previousTimings != null ? previousTimings : runsDir);
+		if (!estimates.isEmpty()) {
+			double mean = estimates.values().doubleStream().average().orElse(0);
+			selected.sort(Comparator.comparingDouble((PreparedRun.Run run) -> estimates.getOrDefault(run.id, mean)).reversed());
+
+			log.info("Ordered runs by estimated run time, using {} previous timings", estimates.size());
+		}
+
+		Admission admission = null;
+		if (memoryAdmission) {
+			admission = createAdmission();
+			if (scenario == null && taskMemory <= 0) {
+				log.warn("Memory can not be estimated without reusing the scenario, please set --task-memory. Memory admission is disabled.");
+				admission = null;
+			}
+		}
+
+		for (PreparedRun.Run run : selected) {
+
+			Path claim = sharedQueue ? runsDir.resolve(run.id + "-" + launchId + ".claim") : null;
+
+			int memory = 0;
+			if (admission != null)
+				memory = Math.min(admission.budget, taskMemory > 0 ? taskMemory : estimateMemory(run.config, scenario));
+
+			Task task = new Task(((BatchRun) prepare.setup).getBindings(run.id, run.args), new ParallelModule(run.config, scenario, replay, image, writer),
+					maxIterations, claim, runsDir.resolve(run.id + ".time"), runsDir.resolve(run.id + ".done"), admission, memory);
+
+			String outputPath = run.config.controler().getOutputDirectory();
+			futures.add(CompletableFuture.runAsync(task, executor)
+					.exceptionally(t -> {
+						log.error("Task {} failed", outputPath, t);
+						return null;
+					}));
+		}
+
 		log.info("Created {} (out of {}) tasks for worker {} ({} threads available)", futures.size(), prepare.runs.size(), workerIndex, threads);
 
 		// Wait for all futures to complete
@@ -251,17 +413,413 @@ public class RunParallel<T> implements Callable<Integer> {
 		return 0;
 	}
 
+	/**
+	 * Find the runs that are identical to the first run before the branch iteration. This includes all config params apart from output and snapshot
+	 * settings, the random seed, the progression config and the policy. For a {@link FixedPolicy} only entries until the branch date are compared.
+	 * The other runs are simulated from the first iteration.
+	 *
+	 * @return ids of runs that can start from the common state
+	 */
+	private Set<Integer> branchableRuns() {
+
+		PreparedRun.Run first = prepare.runs.get(0);
+		Map<String, String> base = prefixConfig(first.config);
+
+		Set<Integer> result = new HashSet<>();
+		for (PreparedRun.Run run : prepare.runs) {
+			Map<String, String> other = prefixConfig(run.config);
+			if (other.equals(base)) {
+				result.add(run.id);
+				continue;
+			}
+
+			Set<String> keys = new TreeSet<>(base.keySet());
+			keys.addAll(other.keySet());
+			keys.removeIf(k -> Objects.equals(base.get(k), other.get(k)));
+
+			log.warn("Run {} differs from run {} before branch iteration {} and starts from the first iteration: {}", run.id, first.id, branchIteration, keys);
+		}
+
+		log.info("{} of {} runs start from branch iteration {}", result.size(), prepare.runs.size(), branchIteration);
+
+		return result;
+	}
+
+	/**
+	 * All values of a config that influence the simulation before the branch iteration.
+	 */
+	private Map<String, String> prefixConfig(Config config) {
+
+		Map<String, String> result = new TreeMap<>();
+		for (ConfigGroup group : config.getModules().values())
+			collectParams(group.getName(), group, result);
+
+		BRANCH_IGNORED.forEach(result::remove);
+
+		EpisimConfigGroup episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
+		ConfigRenderOptions concise = ConfigRenderOptions.concise();
+
+		result.put("progression", episimConfig.getProgressionConfig().root().render(concise));
+
+		com.typesafe.config.Config policy = episimConfig.getPolicy();
+		if (!episimConfig.getPolicyClass().equals(FixedPolicy.class.getName())) {
+			result.put("policy", policy.root().render(concise));
+			return result;
+		}
+
+		LocalDate branchDate = episimConfig.getStartDate().plusDays(branchIteration - 1);
+		for (Map.Entry<String, ConfigValue> act : policy.root().entrySet()) {
+
+			if (!(act.getValue() instanceof ConfigObject)) {
+				result.put("policy." + act.getKey(), act.getValue().render(concise));
+				continue;
+			}
+
+			for (Map.Entry<String, ConfigValue> e : ((ConfigObject) act.getValue()).entrySet()) {
+				if (isUntil(e.getKey(), branchDate))
+					result.put("policy." + act.getKey() + "." + e.getKey(), e.getValue().render(concise));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Whether a policy entry for a day or date applies until the branch iteration. Unknown entries are always included.
+	 */
+	private boolean isUntil(String key, LocalDate branchDate) {
+		try {
+			if (key.startsWith("day"))
+				return Integer.parseInt(key.substring(4)) <= branchIteration;
+
+			return !LocalDate.parse(key).isAfter(branchDate);
+		} catch (NumberFormatException | DateTimeParseException e) {
+			return true;
+		}
+	}
+
+	private static void collectParams(String prefix, ConfigGroup group, Map<String, String> result) {
+
+		for (Map.Entry<String, String> e : group.getParams().entrySet())
+			result.put(prefix + "." + e.getKey(), e.getValue());
+
+		for (Map.Entry<String, ? extends Collection<? extends ConfigGroup>> sets : group.getParameterSets().entrySet()) {
+			int i = 0;
+			for (ConfigGroup set : sets.getValue())
+				collectParams(prefix + "." + sets.getKey() + "[" + i++ + "]", set, result);
+		}
+	}
+
+	/**
+	 * Create a new config for a run, in the same way it has been prepared, so that it can be modified independently.
+	 *
+	 * @return the copy, or null if the prepared config can not be reproduced
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private Config copyConfig(PreparedRun.Run run) {
+
+		BatchRun<Object> setup = (BatchRun<Object>) prepare.setup;
+		Config copy = run.args == null ? setup.baseCase(run.id) : setup.prepareConfig(run.id, run.args);
+
+		if (copy == null || copy == run.config || !prefixConfig(copy).equals(prefixConfig(run.config)))
+			return null;
+
+		return copy;
+	}
+
+	/**
+	 * Snapshot of the iterations all runs have in common. Only one worker, the one that creates the lock file, simulates them.
+	 * The other workers wait until it has written the marker containing the path of the snapshot.
+	 * The snapshot of a previous execution is reused, if its marker is still present.
+	 *
+	 * @return path to the snapshot or null if it could not be created
+	 */
+	@Nullable
+	private Path branchSnapshot(URL context, Scenario scenario, ReplayHandler replay, PopulationImage image) throws IOException, InterruptedException {
+
+		Path branchOutput = output.resolve("branch");
+		if (!Files.exists(branchOutput)) Files.createDirectories(branchOutput);
+
+		Path lock = branchOutput.resolve(".lock");
+		Path done = branchOutput.resolve(".done");
+
+		if (Files.exists(done)) {
+			log.info("Reusing common iterations from {}", done);
+			return readBranchMarker(done);
+		}
+
+		try {
+			// creating the file is atomic, only one worker will succeed
+			Files.createFile(lock);
+		} catch (FileAlreadyExistsException e) {
+			return awaitBranchMarker(lock, done);
+		}
+
+		Path snapshot = null;
+		try {
+			snapshot = simulateCommonPrefix(context, branchOutput, scenario, replay, image);
+		} finally {
+			// waiting workers need the marker even if the simulation failed, it must appear with its complete content
+			Path tmp = branchOutput.resolve(".done.tmp");
+			Files.writeString(tmp, snapshot != null ? snapshot.toAbsolutePath().toString() : "");
+			Files.move(tmp, done, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Wait until the worker that holds the lock has simulated the common iterations.
+	 */
+	@Nullable
+	private static Path awaitBranchMarker(Path lock, Path done) throws IOException, InterruptedException {
+
+		log.info("Waiting for another worker to simulate the common iterations...");
+
+		long start = System.currentTimeMillis();
+		boolean warned = false;
+		while (!Files.exists(done)) {
+			Thread.sleep(BRANCH_POLL_MS);
+
+			if (!warned && System.currentTimeMillis() - start > BRANCH_WARN_MS) {
+				log.warn("Still waiting for the common iterations. If the worker simulating them was aborted, delete {} and start again.", lock);
+				warned = true;
+			}
+		}
+
+		return readBranchMarker(done);
+	}
+
+	@Nullable
+	private static Path readBranchMarker(Path done) throws IOException {
+
+		String path = Files.readString(done).trim();
+		if (path.isEmpty() || !Files.exists(Path.of(path))) {
+			log.error("Common iterations could not be simulated, delete {} to try again", done.getParent());
+			return null;
+		}
+
+		return Path.of(path);
+	}
+
+	/**
+	 * Simulate the iterations all runs have in common and write a snapshot of the resulting state.
+	 * The prepared config of the first run is not modified.
+	 *
+	 * @return path to the snapshot or null if it could not be created
+	 */
+	@Nullable
+	private Path simulateCommonPrefix(URL context, Path branchOutput, Scenario scenario, ReplayHandler replay, PopulationImage image) {
+
+		PreparedRun.Run first = prepare.runs.get(0);
+
+		Config prefixConfig = copyConfig(first);
+		if (prefixConfig == null) {
+			log.error("Config of run {} can not be reproduced for the common iterations", first.id);
+			return null;
+		}
+
+		prefixConfig.controler().setOutputDirectory(branchOutput.toString());
+		prefixConfig.controler().setRunId(prepare.setup.getMetadata().name + "branch");
+		prefixConfig.setContext(context);
+
+		log.info("Simulating common iterations until {}", branchIteration);
+
+		// output is written synchronously, it must be complete before the snapshot is created
+		Module module = Modules.override(new ParallelModule(prefixConfig, scenario, replay, image, null)).with(new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(EpisimWriter.class).toInstance(new EpisimWriter());
+			}
+		});
+
+		Injector injector = Task.createInjector(((BatchRun) prepare.setup).getBindings(first.id, first.args), module);
+
+		Path snapshot = injector.getInstance(EpisimRunner.class).runUntil(branchIteration);
+
+		if (snapshot == null)
+			log.error("Could not create snapshot at branch iteration {}", branchIteration);
+		else
+			log.info("Starting branched runs from {}", snapshot);
+
+		return snapshot;
+	}
+
+	/**
+	 * Create admission for the heap that is still available after the shared scenario has been loaded.
+	 */
+	private Admission createAdmission() {
+
+		MemoryMXBean bean = ManagementFactory.getMemoryMXBean();
+		if (admissionGc)
+			bean.gc();
+
+		MemoryUsage heap = bean.getHeapMemoryUsage();
+		long max = heap.getMax() > 0 ? heap.getMax() : Runtime.getRuntime().maxMemory();
+		long used = usedHeapAfterCollection(heap);
+
+		int budget = (int) Math.max(1, (max - used) / MB - memoryMargin);
+
+		log.info("Admitting tasks for {} MB of heap (max={} MB, used={} MB, margin={} MB)", budget, max / MB, used / MB, memoryMargin);
+
+		return new Admission(budget);
+	}
+
+	/**
+	 * Heap that was still in use after the last garbage collection, without forcing one.
+	 * Garbage that has not been collected yet would otherwise be counted as used.
+	 */
+	private static long usedHeapAfterCollection(MemoryUsage heap) {
+
+		Set<String> collected = new HashSet<>();
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (gc.getCollectionCount() > 0)
+				collected.add(gc.getName());
+		}
+
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() != MemoryType.HEAP || !pool.isValid())
+				continue;
+
+			MemoryUsage usage = pool.getCollectionUsage();
+
+			// the usage after collection is only meaningful if the pool has been collected at least once
+			if (usage == null || Arrays.stream(pool.getMemoryManagerNames()).noneMatch(collected::contains))
+				usage = pool.getUsage();
+
+			used += usage.getUsed();
+		}
+
+		return used > 0 ? Math.min(used, heap.getUsed()) : heap.getUsed();
+	}
+
+	/**
+	 * Estimate the heap needed by one run in MB.
+	 */
+	private int estimateMemory(Config config, Scenario scenario) {
+
+		TracingConfigGroup tracingConfig = ConfigUtils.addOrGetModule(config, TracingConfigGroup.class);
+
+		long perPerson = tracingConfig.getStrategy() == TracingConfigGroup.Strategy.NONE ? bytesPerPerson : bytesPerTracedPerson;
+
+		return (int) Math.max(1, scenario.getPopulation().getPersons().size() * perPerson / MB);
+	}
+
+	/**
+	 * Remove runs that have been completed by a previous execution and warn about runs that were claimed but never completed.
+	 */
+	private void skipCompletedRuns(List<PreparedRun.Run> selected, Path runsDir) throws IOException {
+
+		Set<Integer> done = listRuns(runsDir, "*.done");
+		Set<Integer> claimed = listRuns(runsDir, "*.claim");
+
+		// claims of this execution may already have been created by other workers
+		claimed.removeAll(listRuns(runsDir, "*-" + launchId + ".claim"));
+
+		List<Integer> skipped = new ArrayList<>();
+		List<Integer> aborted = new ArrayList<>();
+		selected.removeIf(run -> {
+			if (done.contains(run.id)) {
+				skipped.add(run.id);
+				return true;
+			}
+
+			if (claimed.contains(run.id))
+				aborted.add(run.id);
+
+			return false;
+		});
+
+		if (!skipped.isEmpty())
+			log.warn("Skipping {} runs that have been completed before, delete their .done files in {} to simulate them again: {}", skipped.size(), runsDir, skipped);
+
+		if (!aborted.isEmpty())
+			log.warn("{} runs were claimed by a previous execution but never completed, they are simulated again: {}", aborted.size(), aborted);
+	}
+
+	/**
+	 * Ids of runs that have a file matching the pattern, named {@code <id>.<ext>} or {@code <id>-<launch>.<ext>}.
+	 */
+	private static Set<Integer> listRuns(Path dir, String glob) throws IOException {
+
+		Set<Integer> result = new HashSet<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+
+				int end = 0;
+				while (end < name.length() && Character.isDigit(name.charAt(end)))
+					end++;
+
+				if (end > 0)
+					result.add(Integer.parseInt(name.substring(0, end)));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Read run times written by {@link Task}.
+	 *
+	 * @return run time in seconds for each run id
+	 */
+	private static Object2DoubleMap<Integer> readRunTimes(Path dir) throws IOException {
+
+		Object2DoubleMap<Integer> result = new Object2DoubleOpenHashMap<>();
+
+		if (!Files.isDirectory(dir))
+			return result;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.time")) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				try {
+					int id = Integer.parseInt(name.substring(0, name.length() - ".time".length()));
+					result.put(id, Double.parseDouble(Files.readString(path).trim()));
+				} catch (NumberFormatException e) {
+					log.warn("Could not read run time from {}", path);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Heap budget in MB that is shared by all tasks.
+	 */
+	private static final class Admission {
+
+		private final int budget;
+
+		/**
+		 * One permit per MB, fair to keep the order of tasks.
+		 */
+		private final Semaphore permits;
+
+		private Admission(int budget) {
+			this.budget = budget;
+			this.permits = new Semaphore(budget, true);
+		}
+	}
+
 	private static final class ParallelModule extends AbstractModule {
 
 		private final Config config;
 		private final Scenario scenario;
 		private final ReplayHandler replay;
+		private final PopulationImage image;
 		private final AsyncEpisimWriter writer;
 
-		private ParallelModule(Config config, @Nullable Scenario scenario, ReplayHandler replay, AsyncEpisimWriter writer) {
+		private ParallelModule(Config config, @Nullable Scenario scenario, ReplayHandler replay, PopulationImage image, AsyncEpisimWriter writer) {
 			this.scenario = scenario;
 			this.config = config;
 			this.replay = replay;
+			this.image = image;
 			this.writer = writer;
 		}
 
@@ -272,6 +830,7 @@ public class RunParallel<T> implements Callable<Integer> {
 			if (scenario != null) {
 				bind(Scenario.class).toInstance(scenario);
 				bind(ReplayHandler.class).toInstance(replay);
+				bind(PopulationImage.class).toInstance(image);
 			}
 
 			if (writer != null) {
@@ -289,14 +848,49 @@ public class RunParallel<T> implements Callable<Integer> {
 		private final ParallelModule module;
 		private final int maxIterations;
 
-		private Task(@Nullable Module bindings, ParallelModule module, int maxIterations) {
+		/**
+		 * File that is created to claim this run, if the queue is shared with other workers.
+		 */
+		@Nullable
+		private final Path claim;
+
+		/**
+		 * File where the run time will be written to.
+		 */
+		private final Path time;
+
+		/**
+		 * File that is created when the run has been completed.
+		 */
+		private final Path done;
+
+		/**
+		 * Heap admission, if enabled.
+		 */
+		@Nullable
+		private final Admission admission;
+
+		/**
+		 * Estimated heap usage in MB.
+		 */
+		private final int memory;
+
+		private Task(@Nullable Module bindings, ParallelModule module, int maxIterations, @Nullable Path claim, Path time, Path done,
+		             @Nullable Admission admission, int memory) {
 			this.bindings = bindings;
 			this.module = module;
 			this.maxIterations = maxIterations;
+			this.claim = claim;
+			this.time = time;
+			this.done = done;
+			this.admission = admission;
+			this.memory = memory;
 		}
 
-		@Override
-		public void run() {
+		/**
+		 * Create the injector for one run.
+		 */
+		private static Injector createInjector(@Nullable Module bindings, Module module) {
 
 			Module base;
 			if (bindings == null)
@@ -306,19 +900,80 @@ public class RunParallel<T> implements Callable<Integer> {
 
 
 			// overwrite the scenario definition
-			Injector injector = Guice.createInjector(Modules.override(base).with(this.module));
+			return Guice.createInjector(Modules.override(base).with(module));
+		}
+
+		@Override
+		public void run() {
+
+			if (claim != null) {
+				try {
+					// creating the file is atomic, only one worker will succeed
+					Files.createFile(claim);
+				} catch (FileAlreadyExistsException e) {
+					log.info("Task already claimed by another worker of this execution: {}", this.module.config.controler().getOutputDirectory());
+					return;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			if (admission != null) {
+				try {
+					// tryAcquire would barge ahead of waiting tasks, even on a fair semaphore
+					if (admission.permits.availablePermits() < memory || admission.permits.hasQueuedThreads())
+						log.info("Task waiting for {} MB of heap: {}", memory, this.module.config.controler().getOutputDirectory());
+
+					admission.permits.acquire(memory);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+
+			try {
+				simulate();
+			} finally {
+				if (admission != null)
+					admission.permits.release(memory);
+			}
+		}
+
+		private void simulate() {
+
+			long start = System.currentTimeMillis();
+
+			Injector injector = createInjector(bindings, module);
 
 			if (i.getAndIncrement() == 0) {
 				RunEpisim.printBindings(injector);
 			}
 
-			log.info("Starting task: {}", this.module.config.controler().getOutputDirectory());
+			log.info("Starting task: {} (heap used={} MB)", this.module.config.controler().getOutputDirectory(),
+					ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / MB);
 
 			EpisimRunner runner = injector.getInstance(EpisimRunner.class);
 
 			runner.run(maxIterations);
 
-			log.info("Task finished: {}", this.module.config.controler().getOutputDirectory());
+			double seconds = (System.currentTimeMillis() - start) / 1000d;
+
+			try {
+				Files.writeString(time, Double.toString(seconds));
+			} catch (IOException e) {
+				log.warn("Could not write run time to {}", time, e);
+			}
+
+			try {
+				Files.writeString(done, module.config.controler().getOutputDirectory());
+			} catch (IOException e) {
+				log.warn("Could not mark run as completed {}", done, e);
+			}
+
+			MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+			log.info("Task finished: {} ({}s, estimated={} MB, heap used={} MB, committed={} MB, free={} MB)",
+					this.module.config.controler().getOutputDirectory(), seconds, memory,
+					heap.getUsed() / MB, heap.getCommitted() / MB, Runtime.getRuntime().freeMemory() / MB);
 		}
 	}
 
@@ -33,7 +33,7 @@ import picocli.CommandLine;
 		description = "Scenario creation tool for Episim offering various subcommands.",
 		mixinStandardHelpOptions = true,
 		usageHelpWidth = 120,
-		subcommands = {CommandLine.HelpCommand.class, AutoComplete.GenerateCompletion.class, RunTrial.class,
+		subcommands = {CommandLine.HelpCommand.class, AutoComplete.GenerateCompletion.class, RunTrial.class, RunCalibration.class,
 				DistrictLookup.class, SplitHomeFacilities.class, ConvertPersonAttributes.class, FilterEvents.class, FilterPersons.class,
 				MergeEvents.class, DownSampleScenario.class, DownloadWeatherData.class, DownloadVaccinationData.class, DownloadGoogleMobilityReport.class}
 )
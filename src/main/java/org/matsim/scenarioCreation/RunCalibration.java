@@ -0,0 +1,358 @@
+package org.matsim.scenarioCreation;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.episim.*;
+import org.matsim.episim.reporting.EpisimWriter;
+import org.matsim.run.RunEpisim;
+import picocli.CommandLine;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Calibrates the calibration parameter within one JVM. All candidates share scenario and events,
+ * their error is computed incrementally on the daily reports and runs are stopped as soon as they are dominated by other candidates.
+ * <p>
+ * Pruning follows asynchronous successive halving: at each rung (<em>min-days</em> * <em>eta</em>^k days) a run only continues,
+ * if its error is within the best 1/<em>eta</em> of all errors recorded at this rung so far.
+ */
+@CommandLine.Command(
+		name = "calibrate",
+		description = "Calibrate the calibration parameter with early stopping of bad candidates",
+		abbreviateSynopsis = true,
+		showDefaultValues = true
+)
+public final class RunCalibration implements Callable<Integer> {
+
+	private static final Logger log = LogManager.getLogger(RunCalibration.class);
+
+	@CommandLine.Parameters(paramLabel = "MODULE", arity = "1", description = "Name of module to load (See RunEpisim)")
+	private String moduleName;
+
+	@CommandLine.Option(names = "--reference", description = "CSV file with the columns date and cases, containing the daily reported cases", required = true)
+	private Path reference;
+
+	@CommandLine.Option(names = "--min", description = "Lower bound of the calibration parameter", required = true)
+	private double min;
+
+	@CommandLine.Option(names = "--max", description = "Upper bound of the calibration parameter", required = true)
+	private double max;
+
+	@CommandLine.Option(names = "--candidates", description = "Number of candidates between lower and upper bound", defaultValue = "16")
+	private int candidates;
+
+	@CommandLine.Option(names = "--days", description = "Number of days to simulate", defaultValue = "195")
+	private int days;
+
+	@CommandLine.Option(names = "--min-days", description = "Days until the first rung", defaultValue = "30")
+	private int minDays;
+
+	@CommandLine.Option(names = "--eta", description = "Reduction factor between rungs", defaultValue = "2")
+	private int eta;
+
+	@CommandLine.Option(names = "--threshold", description = "Stop any run with a larger error (0=disabled)", defaultValue = "0")
+	private double threshold;
+
+	@CommandLine.Option(names = "--dark-number", description = "Assumed factor between actual and reported cases", defaultValue = "2")
+	private double darkNumber;
+
+	@CommandLine.Option(names = "--window", description = "Window size for smoothing the daily cases", defaultValue = "5")
+	private int window;
+
+	@CommandLine.Option(names = "--threads", description = "Number of runs executed concurrently", defaultValue = "4")
+	private int threads;
+
+	@CommandLine.Option(names = "--output", defaultValue = "output-calibration")
+	private Path output;
+
+	public static void main(String[] args) {
+		System.exit(new CommandLine(new RunCalibration())
+				.execute(args));
+	}
+
+	@Override
+	public Integer call() throws Exception {
+
+		Configurator.setRootLevel(Level.ERROR);
+		Configurator.setLevel(log.getName(), Level.INFO);
+
+		if (candidates < 1 || eta < 2 || minDays < 1) {
+			log.error("At least one candidate, eta >= 2 and min-days >= 1 are required");
+			return 1;
+		}
+
+		NavigableMap<LocalDate, Double> cases = readReference(reference);
+
+		Module base = RunEpisim.resolveModules(List.of(moduleName)).get(0);
+		Injector injector = Guice.createInjector(Modules.override(new EpisimModule()).with(base));
+
+		// shared by all candidates
+		Scenario scenario = injector.getInstance(Scenario.class);
+		ReplayHandler replay = injector.getInstance(ReplayHandler.class);
+		PopulationImage image = new PopulationImage();
+
+		if (!Files.exists(output)) Files.createDirectories(output);
+
+		List<Rung> rungs = new ArrayList<>();
+		for (int d = minDays; d < days; d *= eta)
+			rungs.add(new Rung(d));
+
+		log.info("Evaluating {} candidates for {} days with rungs at {}", candidates, days, rungs);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Result>> futures = new ArrayList<>();
+
+		for (int i = 0; i < candidates; i++) {
+			double param = candidates == 1 ? min : min + (max - min) * i / (candidates - 1);
+			int id = i;
+			futures.add(executor.submit(() -> evaluate(id, param, base, scenario, replay, image, cases, rungs)));
+		}
+
+		List<Result> results = new ArrayList<>();
+		for (Future<Result> f : futures) {
+			try {
+				results.add(f.get());
+			} catch (ExecutionException e) {
+				log.error("Candidate failed", e);
+			}
+		}
+
+		executor.shutdown();
+
+		sort(results);
+
+		try (BufferedWriter writer = Files.newBufferedWriter(output.resolve("calibration.tsv"))) {
+			writer.write("candidate\tcalibrationParameter\tdays\terror\tpruned\n");
+			for (Result r : results) {
+				writer.write(String.format(Locale.ROOT, "%d\t%.12f\t%d\t%f\t%b\n", r.id, r.param, r.days, r.error, r.pruned));
+			}
+		}
+
+		if (!results.isEmpty()) {
+			Result best = results.get(0);
+			log.info("Best candidate {} with calibrationParameter={} and error={}", best.id, best.param, best.error);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Simulate one candidate until it is finished or pruned.
+	 */
+	private Result evaluate(int id, double param, Module base, Scenario scenario, ReplayHandler replay, PopulationImage image,
+	                        NavigableMap<LocalDate, Double> cases, List<Rung> rungs) {
+
+		Config config = Guice.createInjector(Modules.override(new EpisimModule()).with(base)).getInstance(Config.class);
+		EpisimConfigGroup episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
+
+		episimConfig.setCalibrationParameter(param);
+		episimConfig.setWriteEvents(EpisimConfigGroup.WriteEvents.none);
+		config.controler().setOutputDirectory(output.resolve("candidate_" + id).toString());
+		config.controler().setRunId("candidate" + id);
+
+		Module module = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(Config.class).toInstance(config);
+				bind(Scenario.class).toInstance(scenario);
+				bind(ReplayHandler.class).toInstance(replay);
+				bind(PopulationImage.class).toInstance(image);
+				bind(EpisimWriter.class).toInstance(new EpisimWriter());
+			}
+		};
+
+		Injector injector = Guice.createInjector(Modules.override(Modules.override(new EpisimModule()).with(base)).with(module));
+
+		Objective objective = new Objective(param, cases, rungs, window, darkNumber, threshold, eta);
+		injector.getInstance(EpisimRunner.class).run(days, objective);
+
+		log.info("Candidate {} (calibrationParameter={}) finished after {} days with error={}{}", id, param, objective.days, objective.error(),
+				objective.pruned ? " (pruned)" : "");
+
+		return new Result(id, param, objective.days, objective.error(), objective.pruned);
+	}
+
+	/**
+	 * Sort finished runs before pruned ones, each by error. Errors of pruned runs only cover the days until they were stopped
+	 * and are not comparable to the errors of finished runs.
+	 */
+	static void sort(List<Result> results) {
+		results.sort(Comparator.comparing((Result r) -> r.pruned).thenComparingDouble(r -> r.error));
+	}
+
+	/**
+	 * Read daily reported cases.
+	 */
+	private static NavigableMap<LocalDate, Double> readReference(Path path) throws Exception {
+
+		NavigableMap<LocalDate, Double> result = new TreeMap<>();
+
+		try (CSVParser parser = new CSVParser(Files.newBufferedReader(path), CSVFormat.DEFAULT.withFirstRecordAsHeader())) {
+			for (CSVRecord record : parser) {
+				result.put(LocalDate.parse(record.get("date")), Double.parseDouble(record.get("cases")));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Mean squared log error between smoothed simulated and reported cases, updated after each day.
+	 */
+	static final class Objective implements Predicate<EpisimReporting.InfectionReport> {
+
+		private final double param;
+		private final NavigableMap<LocalDate, Double> cases;
+		private final List<Rung> rungs;
+		private final int window;
+		private final double darkNumber;
+		private final double threshold;
+		private final int eta;
+
+		private final Deque<Double> simWindow = new ArrayDeque<>();
+		private final Deque<Double> refWindow = new ArrayDeque<>();
+
+		private long prevCumulative = -1;
+		private double sum;
+		private int n;
+		int days;
+		private int nextRung;
+		boolean pruned;
+
+		Objective(double param, NavigableMap<LocalDate, Double> cases, List<Rung> rungs, int window, double darkNumber, double threshold, int eta) {
+			this.param = param;
+			this.cases = cases;
+			this.rungs = rungs;
+			this.window = window;
+			this.darkNumber = darkNumber;
+			this.threshold = threshold;
+			this.eta = eta;
+		}
+
+		double error() {
+			return n == 0 ? Double.POSITIVE_INFINITY : sum / n;
+		}
+
+		@Override
+		public boolean test(EpisimReporting.InfectionReport report) {
+
+			days = (int) report.day;
+
+			long cumulative = report.nShowingSymptomsCumulative;
+			double sim = prevCumulative == -1 ? 0 : cumulative - prevCumulative;
+			prevCumulative = cumulative;
+
+			Double ref = cases.get(LocalDate.parse(report.date));
+
+			// days without reference are not considered
+			if (ref == null)
+				return false;
+
+			// both windows need to be updated, therefore no short-circuit
+			if (smooth(simWindow, sim) & smooth(refWindow, ref * darkNumber)) {
+				double diff = Math.log1p(mean(simWindow)) - Math.log1p(mean(refWindow));
+				sum += diff * diff;
+				n++;
+			}
+
+			if (n > 0 && threshold > 0 && error() > threshold) {
+				pruned = true;
+				return true;
+			}
+
+			if (nextRung < rungs.size() && days >= rungs.get(nextRung).days) {
+				boolean promoted = rungs.get(nextRung++).promote(error(), eta);
+				if (!promoted) {
+					log.info("Pruning calibrationParameter={} at day {} with error={}", param, days, error());
+					pruned = true;
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		/**
+		 * Add value to the window.
+		 *
+		 * @return whether window is full
+		 */
+		private boolean smooth(Deque<Double> values, double value) {
+			values.addLast(value);
+			if (values.size() > window)
+				values.removeFirst();
+
+			return values.size() == window;
+		}
+
+		private double mean(Deque<Double> values) {
+			return values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+		}
+	}
+
+	/**
+	 * Errors of all runs that reached a certain day.
+	 */
+	static final class Rung {
+
+		private final int days;
+		private final List<Double> errors = new ArrayList<>();
+
+		Rung(int days) {
+			this.days = days;
+		}
+
+		/**
+		 * Record an error and decide whether the run may continue.
+		 */
+		synchronized boolean promote(double error, int eta) {
+			errors.add(error);
+
+			long better = errors.stream().filter(e -> e < error).count();
+			int promoted = Math.max(1, errors.size() / eta);
+
+			return better < promoted;
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(days);
+		}
+	}
+
+	static final class Result {
+
+		final int id;
+		final double param;
+		final int days;
+		final double error;
+		final boolean pruned;
+
+		Result(int id, double param, int days, double error, boolean pruned) {
+			this.id = id;
+			this.param = param;
+			this.days = days;
+			this.error = error;
+			this.pruned = pruned;
+		}
+	}
+}
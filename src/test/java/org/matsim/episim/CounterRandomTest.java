@@ -0,0 +1,50 @@
+package org.matsim.episim;
+
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class CounterRandomTest {
+
+	@Test
+	public void deterministic() {
+
+		CounterRandom a = new CounterRandom(1);
+		CounterRandom b = new CounterRandom(1);
+
+		long entity = CounterRandom.entity(Id.createPersonId("p1"));
+
+		assertThat(entity).isEqualTo(CounterRandom.entity(Id.createPersonId("p1")))
+				.isNotEqualTo(CounterRandom.entity(Id.createPersonId("p2")));
+
+		// draws of other entities in between do not change the result
+		double first = a.stream(5, entity, CounterRandom.Purpose.progression).nextDouble();
+		b.stream(5, CounterRandom.entity(Id.createPersonId("p2")), CounterRandom.Purpose.progression).nextDouble();
+
+		assertThat(b.stream(5, entity, CounterRandom.Purpose.progression).nextDouble()).isEqualTo(first);
+		assertThat(a.nextDouble(5, entity, CounterRandom.Purpose.testing, 0)).isEqualTo(b.nextDouble(5, entity, CounterRandom.Purpose.testing, 0));
+
+		assertThat(a.key(5, entity, CounterRandom.Purpose.progression))
+				.isNotEqualTo(a.key(6, entity, CounterRandom.Purpose.progression))
+				.isNotEqualTo(a.key(5, entity, CounterRandom.Purpose.testing))
+				.isNotEqualTo(new CounterRandom(2).key(5, entity, CounterRandom.Purpose.progression));
+	}
+
+	@Test
+	public void uniform() {
+
+		CounterRandom rnd = new CounterRandom(0);
+
+		int n = 100_000;
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			double v = rnd.nextDouble(1, i, CounterRandom.Purpose.vaccination, 0);
+			assertThat(v).isBetween(0d, 1d);
+			sum += v;
+		}
+
+		assertThat(sum / n).isCloseTo(0.5, within(0.01));
+	}
+}
@@ -49,6 +49,10 @@ public class EpisimConfigGroupTest {
 		assertThatExceptionOfType(NoSuchElementException.class)
 				.isThrownBy(() -> config.selectInfectionParams("edu"));
 
+		// params are indexed densely in the order they were added
+		assertThat(work.getIndex()).isEqualTo(0);
+		assertThat(home.getIndex()).isEqualTo(3);
+
 	}
 
 	@Test
@@ -1,17 +1,30 @@
 package org.matsim.episim;
 
+import org.junit.Assume;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Person;
+import org.matsim.episim.model.VirusStrain;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.vm.VM;
 
 import java.io.*;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class EpisimPersonTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void daysSince() {
 
@@ -92,4 +105,123 @@ public class EpisimPersonTest {
 				.isEqualTo(EpisimPerson.DiseaseStatus.showingSymptoms);
 
 	}
+
+	@Test
+	public void shareTrajectory() {
+
+		PopulationImage image = new PopulationImage();
+
+		EpisimPerson p1 = new EpisimPerson(Id.createPersonId("shared"), new Attributes(), null);
+		EpisimPerson p2 = new EpisimPerson(Id.createPersonId("shared"), new Attributes(), null);
+
+		for (EpisimPerson p : List.of(p1, p2)) {
+			p.addToTrajectory(new EpisimPerson.Activity("home", null));
+			p.addToTrajectory(new EpisimPerson.Activity("work", null));
+			p.setEndOfDay(DayOfWeek.MONDAY, 1);
+		}
+
+		EpisimPerson.Activity home = new EpisimPerson.Activity("home", null);
+		EpisimPerson.Activity work = new EpisimPerson.Activity("work", null);
+
+		EpisimPerson.Activity[] table = new EpisimPerson.Activity[2];
+		table[image.getTypeIndex("home")] = home;
+		table[image.getTypeIndex("work")] = work;
+
+		p1.shareTrajectory(image, table);
+		p2.shareTrajectory(image, table);
+
+		assertThat(image.size()).isEqualTo(1);
+		assertThat(p2.getTrajectory()).containsExactly(home, work);
+		assertThat(p2.getEndOfDay(DayOfWeek.MONDAY)).isEqualTo(1);
+	}
+
+	@Test
+	public void compactDays() {
+
+		PopulationImage image = new PopulationImage();
+		EpisimPerson p = new EpisimPerson(Id.createPersonId("compact"), new Attributes(), null);
+
+		EpisimPerson.Activity home = new EpisimPerson.Activity("home", null);
+		EpisimPerson.Activity work = new EpisimPerson.Activity("work", null);
+
+		for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY)) {
+			p.setStartOfDay(day, p.getTrajectory().size());
+			p.addToTrajectory(home);
+			p.addToTrajectory(work);
+			p.addToTrajectory(home);
+			p.setEndOfDay(day, p.getTrajectory().size() - 1);
+		}
+
+		for (DayOfWeek day : List.of(DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY))
+			p.duplicateDay(day, DayOfWeek.WEDNESDAY);
+
+		EpisimPerson.Activity[] table = new EpisimPerson.Activity[2];
+		table[image.getTypeIndex("home")] = home;
+		table[image.getTypeIndex("work")] = work;
+
+		p.shareTrajectory(image, table);
+
+		// monday has no previous activity and is stored separately
+		assertThat(p.getTrajectory()).hasSize(7);
+		assertThat(p.getStartOfDay(DayOfWeek.WEDNESDAY)).isEqualTo(p.getStartOfDay(DayOfWeek.TUESDAY));
+		assertThat(p.getEndOfDay(DayOfWeek.SUNDAY)).isEqualTo(p.getEndOfDay(DayOfWeek.TUESDAY));
+
+		int start = p.getStartOfDay(DayOfWeek.TUESDAY);
+		assertThat(p.getTrajectory().subList(start - 1, p.getEndOfDay(DayOfWeek.TUESDAY) + 1))
+				.containsExactly(home, home, work, home);
+	}
+
+	@Test
+	public void memoryLayout() {
+
+		// target size is only defined for compressed oops
+		Assume.assumeTrue(VM.current().addressSize() == 4);
+
+		ClassLayout layout = ClassLayout.parseClass(EpisimPerson.class);
+		assertThat(layout.instanceSize())
+				.as(layout.toPrintable())
+				.isLessThanOrEqualTo(80);
+
+		EpisimPerson p = EpisimTestUtils.createPerson("work", null);
+		p.setDiseaseStatus(0, EpisimPerson.DiseaseStatus.infectedButNotContagious);
+
+		// status changes are stored by day
+		assertThat(p.daysSince(EpisimPerson.DiseaseStatus.infectedButNotContagious, 3)).isEqualTo(3);
+		assertThat(p.hadDiseaseStatus(EpisimPerson.DiseaseStatus.contagious)).isFalse();
+		assertThat(p.getTraceableContactPersons(0)).isEmpty();
+	}
+
+	@Test
+	public void stateBuffer() {
+
+		for (EpisimConfigGroup.PersonStateStorage storage : EpisimConfigGroup.PersonStateStorage.values()) {
+
+			PersonStateBuffer state = new PersonStateBuffer(storage, folder.getRoot().toPath(), 1);
+
+			List<EpisimPerson> persons = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				EpisimPerson p = new EpisimPerson(Id.createPersonId("p" + i), new Attributes(), true, null, state);
+				p.setQuarantineStatus(EpisimPerson.QuarantineStatus.atHome, i);
+				p.setVirusStrain(VirusStrain.values()[i % VirusStrain.values().length]);
+				persons.add(p);
+			}
+
+			// state of the first persons needs to survive the growth of the buffer
+			assertThat(state.size()).isEqualTo(5);
+			for (int i = 0; i < 5; i++) {
+				EpisimPerson p = persons.get(i);
+				assertThat(p.getDiseaseStatus()).isEqualTo(EpisimPerson.DiseaseStatus.susceptible);
+				assertThat(p.getQuarantineStatus()).isEqualTo(EpisimPerson.QuarantineStatus.atHome);
+				assertThat(p.daysSinceQuarantine(10)).isEqualTo(10 - i);
+				assertThat(p.getVirusStrain()).isEqualTo(VirusStrain.values()[i % VirusStrain.values().length]);
+				assertThat(p.daysSinceTest(10)).isEqualTo(Integer.MAX_VALUE);
+				assertThat(p.getCurrentPositionInTrajectory()).isEqualTo(0);
+			}
+
+			state.close();
+		}
+
+		// mapped files are removed when the buffers are closed
+		assertThat(folder.getRoot().list()).isEmpty();
+	}
 }
@@ -0,0 +1,52 @@
+package org.matsim.episim;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.matsim.core.config.Config;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.episim.reporting.EpisimWriter;
+
+import java.io.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EpisimReportingTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private EpisimReporting createReporting(String name) throws IOException {
+		Config config = EpisimTestUtils.createTestConfig();
+		config.controler().setOutputDirectory(folder.newFolder(name).toString());
+		return new EpisimReporting(config, new EpisimWriter(), EventsUtils.createEventsManager(), new PersonAttributeStore());
+	}
+
+	@Test
+	public void timeUseSnapshot() throws IOException {
+
+		EpisimReporting reporting = createReporting("a");
+		reporting.addSpentTime("home", 3600);
+		reporting.addSpentTime("pt", 600);
+		reporting.addSpentTime("home", 1800);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			reporting.writeExternal(out);
+		}
+
+		EpisimReporting restored = createReporting("b");
+		restored.addSpentTime("work", 100);
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			restored.readExternal(in);
+		}
+
+		assertThat(restored.getSpentTime("home")).isEqualTo(5400);
+		assertThat(restored.getSpentTime("pt")).isEqualTo(600);
+		assertThat(restored.getSpentTime("work")).isEqualTo(0);
+
+		reporting.close();
+		restored.close();
+	}
+}
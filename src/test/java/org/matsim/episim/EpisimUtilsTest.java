@@ -7,6 +7,7 @@ import org.apache.commons.math3.stat.descriptive.rank.Median;
 import org.apache.commons.math3.util.FastMath;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.assertj.core.data.Offset;
 import org.assertj.core.data.Percentage;
 import org.junit.Assume;
 import org.junit.Test;
@@ -214,4 +215,34 @@ public class EpisimUtilsTest {
 				.isEqualTo(30);
 
 	}
+
+	@Test
+	public void timeline() {
+
+		TreeMap<LocalDate, Double> map = new TreeMap<>(Map.of(
+				LocalDate.of(1970, 1, 1), 0.5d,
+				LocalDate.of(2020, 1, 1), 1d,
+				LocalDate.of(2020, 1, 10), 10d,
+				LocalDate.of(2020, 1, 30), 3d
+		));
+
+		Timeline stepwise = Timeline.stepwise(map, -1);
+		Timeline interpolated = Timeline.interpolated(map, -1);
+
+		for (LocalDate date = LocalDate.of(1969, 12, 1); date.isBefore(LocalDate.of(2020, 3, 1)); date = date.plusDays(1)) {
+			assertThat(stepwise.get(date))
+					.isEqualTo(EpisimUtils.findValidEntry(map, -1d, date));
+
+			assertThat(interpolated.get(date))
+					.isCloseTo(EpisimUtils.interpolateEntry(map, date), Offset.offset(1e-9));
+		}
+
+		assertThat(Timeline.stepwise(Map.of(), 5).getInt(LocalDate.of(2020, 1, 1)))
+				.isEqualTo(5);
+
+		Timeline byAge = Timeline.stepwiseByKey(Map.of(-1, 1d, 10, 0.5d, 60, 0.8d), 1);
+		assertThat(byAge.get(-1)).isEqualTo(1);
+		assertThat(byAge.get(59)).isEqualTo(0.5);
+		assertThat(byAge.get(90)).isEqualTo(0.8);
+	}
 }
@@ -42,7 +42,8 @@ public class AgeAndProgressionDependentInfectionModelWithSeasonalityTest {
 				ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class),
 				ConfigUtils.addOrGetModule(config, TracingConfigGroup.class),
 				ConfigUtils.addOrGetModule(config, VirusStrainConfigGroup.class),
-				ConfigUtils.addOrGetModule(config, VaccinationConfigGroup.class)
+				ConfigUtils.addOrGetModule(config, VaccinationConfigGroup.class),
+				new HouseholdRegistry()
 		);
 		reporting = EpisimTestUtils.getReporting();
 		model = new AgeAndProgressionDependentInfectionModelWithSeasonality(
@@ -0,0 +1,116 @@
+package org.matsim.episim.model;
+
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.episim.*;
+import org.matsim.episim.policy.Restriction;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-contact cost of the infection models with a reference implementation that looks up all factors on each contact.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BenchmarkInfectionModel {
+
+	@Param({"default", "ageDependent"})
+	private String model;
+
+	@Param({"false", "true"})
+	private boolean approximate;
+
+	private InfectionModel infectionModel;
+	private FaceMaskModel maskModel;
+	private EpisimConfigGroup episimConfig;
+	private VaccinationConfigGroup vaccinationConfig;
+	private VirusStrainConfigGroup strainConfig;
+	private Map<String, Restriction> restrictions;
+	private EpisimConfigGroup.InfectionParams act1;
+	private EpisimConfigGroup.InfectionParams act2;
+	private EpisimPerson target;
+	private EpisimPerson infector;
+	private double time;
+
+	public static void main(String[] args) throws RunnerException {
+
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkInfectionModel.class.getSimpleName())
+				.warmupIterations(5).warmupTime(TimeValue.seconds(1))
+				.measurementIterations(10).measurementTime(TimeValue.seconds(1))
+				.forks(1)
+				.build();
+
+		new Runner(opt).run();
+	}
+
+	@Setup
+	public void setup() {
+
+		SplittableRandom rnd = new SplittableRandom(0);
+		Config config = EpisimTestUtils.createTestConfig();
+		EpisimReporting reporting = Mockito.mock(EpisimReporting.class);
+
+		episimConfig = ConfigUtils.addOrGetModule(config, EpisimConfigGroup.class);
+		episimConfig.setApproximateInfectionProbability(approximate);
+		vaccinationConfig = ConfigUtils.addOrGetModule(config, VaccinationConfigGroup.class);
+		strainConfig = ConfigUtils.addOrGetModule(config, VirusStrainConfigGroup.class);
+
+		maskModel = new DefaultFaceMaskModel(rnd);
+
+		if (model.equals("default"))
+			infectionModel = new DefaultInfectionModel(maskModel, config);
+		else
+			infectionModel = new AgeDependentInfectionModelWithSeasonality(maskModel, config, reporting, rnd);
+
+		act1 = episimConfig.getInfectionParam("c10");
+		act2 = episimConfig.getInfectionParam("home");
+		restrictions = episimConfig.createInitialRestrictions();
+
+		infector = EpisimTestUtils.createPerson(reporting);
+		infector.setDiseaseStatus(0, EpisimPerson.DiseaseStatus.contagious);
+
+		target = EpisimTestUtils.createPerson(reporting);
+		target.setVaccinationStatus(EpisimPerson.VaccinationStatus.yes, 0);
+
+		infectionModel.setIteration(10);
+	}
+
+	@Benchmark
+	public double kernel() {
+		time = (time + 1) % 3600;
+		return infectionModel.calcInfectionProbability(target, infector, restrictions, act1, act2, 1, time);
+	}
+
+	/**
+	 * Same formula as {@link DefaultInfectionModel}, but without compiled tables.
+	 */
+	@Benchmark
+	public double reference() {
+
+		time = (time + 1) % 3600;
+
+		double ciCorrection = Math.min(restrictions.get(act1.getContainerName()).getCiCorrection(), restrictions.get(act2.getContainerName()).getCiCorrection());
+
+		VirusStrainConfigGroup.StrainParams strain = strainConfig.getParams(infector.getVirusStrain());
+		double susceptibility = target.getVaccinationStatus() == EpisimPerson.VaccinationStatus.no ? 1
+				: DefaultInfectionModel.getVaccinationEffectiveness(strain, target, vaccinationConfig, 10);
+
+		return 1 - Math.exp(-episimConfig.getCalibrationParameter() * time * ciCorrection
+				* susceptibility
+				* strain.getInfectiousness()
+				* maskModel.getWornMask(infector, act2, restrictions.get(act2.getContainerName())).shedding
+				* maskModel.getWornMask(target, act1, restrictions.get(act1.getContainerName())).intake
+		);
+	}
+}
@@ -11,6 +11,7 @@ import org.matsim.episim.EpisimPerson.DiseaseStatus;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.SplittableRandom;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -50,6 +51,7 @@ public class ConfigurableProgressionModelTest {
 	private TestingConfigGroup testingConfig;
 	private VirusStrainConfigGroup strainConfig;
 	private VaccinationConfigGroup vaccinationConfig;
+	private HouseholdRegistry households;
 
 	@Before
 	public void setup() {
@@ -59,9 +61,10 @@ public class ConfigurableProgressionModelTest {
 		episimConfig = new EpisimConfigGroup();
 		strainConfig = new VirusStrainConfigGroup();
 		vaccinationConfig = new VaccinationConfigGroup();
+		households = new HouseholdRegistry();
 		episimConfig.setProgressionConfig(TEST_CONFIG);
 
-		model = new ConfigurableProgressionModel(new SplittableRandom(1), episimConfig, tracingConfig, strainConfig, vaccinationConfig);
+		model = new ConfigurableProgressionModel(new SplittableRandom(1), episimConfig, tracingConfig, strainConfig, vaccinationConfig, households);
 		model.setIteration(1);
 	}
 
@@ -86,6 +89,70 @@ public class ConfigurableProgressionModelTest {
 		assertThat(p.getTraceableContactPersons(0)).allMatch(t -> t.getQuarantineStatus() == EpisimPerson.QuarantineStatus.atHome);
 	}
 
+	@Test
+	public void tracingDeferredForParallelUpdates() {
+
+		tracingConfig.setTracingProbability(1);
+		tracingConfig.setPutTraceablePersonsInQuarantineAfterDay(0);
+		tracingConfig.setTracingDelay_days(0 );
+		episimConfig.setStateUpdateChunks(4);
+
+		model = new ConfigurableProgressionModel(new SplittableRandom(1), episimConfig, tracingConfig, strainConfig, vaccinationConfig, households);
+		model.setIteration(1);
+
+		assertThat(model.supportsParallelUpdates()).isTrue();
+
+		SplittableRandom rnd = new SplittableRandom(1);
+
+		EpisimPerson p = EpisimTestUtils.createPerson(reporting);
+		p.setDiseaseStatus(0, DiseaseStatus.infectedButNotContagious);
+		for (int day = 0; day <= 5; day++) {
+			model.updateState(p, day, rnd);
+		}
+
+		EpisimPerson contact = EpisimTestUtils.createPerson(reporting);
+		p.addTraceableContactPerson(contact, 5 * 24 * 3600);
+
+		model.updateState(p, 6, rnd);
+		assertThat(p.getDiseaseStatus()).isEqualTo(DiseaseStatus.showingSymptoms);
+		assertThat(contact.getQuarantineStatus()).isEqualTo(EpisimPerson.QuarantineStatus.no);
+
+		model.afterStateUpdates(Map.of(), 6);
+		assertThat(contact.getQuarantineStatus()).isEqualTo(EpisimPerson.QuarantineStatus.atHome);
+	}
+
+	@Test
+	public void tracingDeferredForRandomStreams() {
+
+		tracingConfig.setTracingProbability(1);
+		tracingConfig.setPutTraceablePersonsInQuarantineAfterDay(0);
+		tracingConfig.setTracingDelay_days(0);
+		episimConfig.setCounterBasedRandom(true);
+
+		model = new ConfigurableProgressionModel(new SplittableRandom(1), episimConfig, tracingConfig, strainConfig, vaccinationConfig, households);
+		model.setIteration(1);
+
+		// sequential updates behave the same as parallel updates
+		assertThat(episimConfig.getStateUpdateChunks()).isLessThanOrEqualTo(1);
+		assertThat(model.supportsRandomStreams()).isTrue();
+		assertThat(model.supportsParallelUpdates()).isTrue();
+
+		EpisimPerson p = EpisimTestUtils.createPerson(reporting);
+		p.setDiseaseStatus(0, DiseaseStatus.infectedButNotContagious);
+		for (int day = 0; day <= 5; day++) {
+			model.updateState(p, day, new SplittableRandom(day));
+		}
+
+		EpisimPerson contact = EpisimTestUtils.createPerson(reporting);
+		p.addTraceableContactPerson(contact, 5 * 24 * 3600);
+
+		model.updateState(p, 6, new SplittableRandom(6));
+		assertThat(contact.getQuarantineStatus()).isEqualTo(EpisimPerson.QuarantineStatus.no);
+
+		model.afterStateUpdates(Map.of(), 6);
+		assertThat(contact.getQuarantineStatus()).isEqualTo(EpisimPerson.QuarantineStatus.atHome);
+	}
+
 	@Test
 	public void tracingCapacity() {
 
@@ -154,6 +221,7 @@ public class ConfigurableProgressionModelTest {
 
 		model.updateState(p, 6);
 		assertThat(p.getTraceableContactPersons(0)).allMatch(t -> t.getQuarantineStatus() == EpisimPerson.QuarantineStatus.no);
+		assertThat(member.getQuarantineStatus()).isEqualTo(EpisimPerson.QuarantineStatus.no);
 
 
 		model.updateState(p, 7);
@@ -217,6 +285,14 @@ public class ConfigurableProgressionModelTest {
 		EpisimPerson contact = EpisimTestUtils.createPerson(reporting);
 		contact.getAttributes().putAttribute("homeId", "1");
 
+		// member of the household without recent contact
+		EpisimPerson member = EpisimTestUtils.createPerson(reporting);
+		member.getAttributes().putAttribute("homeId", "1");
+
+		households.add(p);
+		households.add(contact);
+		households.add(member);
+
 		p.addTraceableContactPerson(contact, 5 * 24 * 3600);
 
 		model.updateState(p, 6);
@@ -230,6 +306,7 @@ public class ConfigurableProgressionModelTest {
 		model.setIteration(7);
 		model.updateState(p, 7);
 		assertThat(p.getTraceableContactPersons(0)).allMatch(t -> t.getQuarantineStatus() == EpisimPerson.QuarantineStatus.atHome);
+		assertThat(member.getQuarantineStatus()).isEqualTo(EpisimPerson.QuarantineStatus.atHome);
 
 
 	}
@@ -300,7 +377,7 @@ public class ConfigurableProgressionModelTest {
 						to(DiseaseStatus.recovered, Transition.fixed(0)))
 				.build());
 
-		model = new ConfigurableProgressionModel(new SplittableRandom(1), config, tracingConfig, strainConfig, vaccinationConfig);
+		model = new ConfigurableProgressionModel(new SplittableRandom(1), config, tracingConfig, strainConfig, vaccinationConfig, households);
 
 		List<Double> recoveredDays = new ArrayList<>();
 
@@ -75,4 +75,18 @@ public class DefaultInfectionModelTest {
 		).isCloseTo(0.1, Offset.offset(0.001));
 
 	}
+
+	@Test
+	public void approximateProbability() {
+
+		EpisimConfigGroup episimConfig = new EpisimConfigGroup();
+		episimConfig.setApproximateInfectionProbability(true);
+
+		InfectionKernel kernel = new InfectionKernel(episimConfig, new VaccinationConfigGroup(), new VirusStrainConfigGroup());
+
+		for (double x = 0; x < 40; x += 0.0137) {
+			assertThat(kernel.probability(x))
+					.isCloseTo(1 - Math.exp(-x), Offset.offset(InfectionKernel.APPROXIMATION_ERROR));
+		}
+	}
 }
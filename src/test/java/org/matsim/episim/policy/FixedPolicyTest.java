@@ -52,6 +52,25 @@ public class FixedPolicyTest {
 
 	}
 
+	@Test
+	public void initBeforeStart() {
+
+		FixedPolicy.ConfigBuilder config = FixedPolicy.config()
+				.restrict("2020-03-05", 0.2, "work")
+				.restrict("2020-03-01", 0.5, "work", "home")
+				.restrict("2020-03-12", 0.1, "work");
+
+		FixedPolicy policy = new FixedPolicy(config.build());
+		policy.init(LocalDate.of(2020, 3, 10), r);
+
+		// entries are applied in chronological order
+		assertThat(r.get("work").getRemainingFraction()).isEqualTo(0.2);
+		assertThat(r.get("home").getRemainingFraction()).isEqualTo(0.5);
+
+		policy.updateRestrictions(EpisimTestUtils.createReport("2020-03-12", 3), r);
+		assertThat(r.get("work").getRemainingFraction()).isEqualTo(0.1);
+	}
+
 	@Test
 	public void merge() {
 
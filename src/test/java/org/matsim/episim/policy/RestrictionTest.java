@@ -3,6 +3,10 @@ package org.matsim.episim.policy;
 import org.junit.Test;
 import org.matsim.episim.model.FaceMask;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class RestrictionTest {
@@ -42,6 +46,31 @@ public class RestrictionTest {
 
 	}
 
+	@Test
+	public void determineMask() {
+
+		Restriction r = Restriction.none();
+		SplittableRandom rnd = new SplittableRandom(1);
+
+		assertThat(r.determineMask(rnd)).isEqualTo(FaceMask.NONE);
+
+		// certain masks do not draw a random number
+		r.update(Restriction.ofMask(FaceMask.N95, 1.0));
+		SplittableRandom a = new SplittableRandom(7);
+		assertThat(r.determineMask(a)).isEqualTo(FaceMask.N95);
+		assertThat(a.nextLong()).isEqualTo(new SplittableRandom(7).nextLong());
+
+		r.update(Restriction.ofMask(Map.of(FaceMask.CLOTH, 0.25, FaceMask.SURGICAL, 0.25)));
+
+		Map<FaceMask, Integer> counts = new EnumMap<>(FaceMask.class);
+		for (int i = 0; i < 10_000; i++)
+			counts.merge(r.determineMask(rnd), 1, Integer::sum);
+
+		assertThat(counts).containsOnlyKeys(FaceMask.NONE, FaceMask.CLOTH, FaceMask.SURGICAL);
+		assertThat(counts.get(FaceMask.NONE)).isBetween(4700, 5300);
+		assertThat(counts.get(FaceMask.CLOTH)).isBetween(2200, 2800);
+	}
+
 	@Test
 	public void adjustClosing() {
 
@@ -0,0 +1,139 @@
+package org.matsim.scenarioCreation;
+
+import org.assertj.core.data.Offset;
+import org.junit.Test;
+import org.matsim.episim.EpisimReporting;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RunCalibrationTest {
+
+	private static final LocalDate START = LocalDate.parse("2020-03-01");
+
+	/**
+	 * Reference with 5 reported cases per day, except for the first day.
+	 */
+	private static NavigableMap<LocalDate, Double> reference(int days) {
+		NavigableMap<LocalDate, Double> cases = new TreeMap<>();
+		for (int day = 2; day <= days; day++)
+			cases.put(START.plusDays(day - 1), 5d);
+
+		return cases;
+	}
+
+	private static EpisimReporting.InfectionReport report(int day, long cumulative) {
+		EpisimReporting.InfectionReport report = new EpisimReporting.InfectionReport("total", day * 86400d, START.plusDays(day - 1).toString(), day);
+		report.nShowingSymptomsCumulative = cumulative;
+		return report;
+	}
+
+	@Test
+	public void smoothing() {
+
+		RunCalibration.Objective objective = new RunCalibration.Objective(1, reference(10), List.of(), 2, 2, 0, 2);
+
+		// day without reference is skipped
+		assertThat(objective.test(report(1, 0))).isFalse();
+
+		// window is not full yet
+		assertThat(objective.test(report(2, 10))).isFalse();
+		assertThat(objective.error()).isInfinite();
+
+		// simulated [10, 30], reported [5, 5] times dark number
+		assertThat(objective.test(report(3, 40))).isFalse();
+
+		double diff = Math.log1p(20) - Math.log1p(10);
+		assertThat(objective.error()).isCloseTo(diff * diff, Offset.offset(1e-12));
+		assertThat(objective.days).isEqualTo(3);
+	}
+
+	@Test
+	public void msle() {
+
+		RunCalibration.Objective objective = new RunCalibration.Objective(1, reference(10), List.of(), 1, 2, 0, 2);
+
+		objective.test(report(1, 0));
+
+		// simulated cases match the reference
+		objective.test(report(2, 10));
+		assertThat(objective.error()).isEqualTo(0d);
+
+		objective.test(report(3, 40));
+		objective.test(report(4, 40));
+
+		double d3 = Math.log1p(30) - Math.log1p(10);
+		double d4 = Math.log1p(0) - Math.log1p(10);
+
+		assertThat(objective.error()).isCloseTo((d3 * d3 + d4 * d4) / 3, Offset.offset(1e-12));
+		assertThat(objective.pruned).isFalse();
+	}
+
+	@Test
+	public void threshold() {
+
+		RunCalibration.Objective objective = new RunCalibration.Objective(1, reference(10), List.of(), 1, 2, 0.1, 2);
+
+		objective.test(report(1, 0));
+		assertThat(objective.test(report(2, 10))).isFalse();
+
+		// error of one day above threshold
+		assertThat(objective.test(report(3, 40))).isTrue();
+		assertThat(objective.pruned).isTrue();
+	}
+
+	@Test
+	public void promotion() {
+
+		RunCalibration.Rung rung = new RunCalibration.Rung(10);
+
+		// first runs are always promoted
+		assertThat(rung.promote(5, 2)).isTrue();
+		assertThat(rung.promote(3, 2)).isTrue();
+
+		// only the best size / eta continue
+		assertThat(rung.promote(4, 2)).isFalse();
+		assertThat(rung.promote(1, 2)).isTrue();
+		assertThat(rung.promote(3.5, 2)).isFalse();
+		assertThat(rung.promote(2, 2)).isTrue();
+	}
+
+	@Test
+	public void pruneAtRung() {
+
+		RunCalibration.Rung rung = new RunCalibration.Rung(3);
+		rung.promote(0, 2);
+		rung.promote(0, 2);
+
+		List<RunCalibration.Rung> rungs = new ArrayList<>(List.of(rung));
+		RunCalibration.Objective objective = new RunCalibration.Objective(1, reference(10), rungs, 1, 2, 0, 2);
+
+		objective.test(report(1, 0));
+		assertThat(objective.test(report(2, 10))).isFalse();
+
+		// worse than the two previous runs at this rung
+		assertThat(objective.test(report(3, 40))).isTrue();
+		assertThat(objective.pruned).isTrue();
+	}
+
+	@Test
+	public void sortFinishedFirst() {
+
+		List<RunCalibration.Result> results = new ArrayList<>(List.of(
+				new RunCalibration.Result(0, 1, 30, 0.01, true),
+				new RunCalibration.Result(1, 2, 100, 0.5, false),
+				new RunCalibration.Result(2, 3, 100, 0.2, false),
+				new RunCalibration.Result(3, 4, 60, 0.3, true)
+		));
+
+		RunCalibration.sort(results);
+
+		assertThat(results.stream().mapToInt(r -> r.id))
+				.containsExactly(2, 1, 0, 3);
+	}
+}